@@ -0,0 +1,119 @@
+package com.example.crudapp.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 if any benchmark got slower.
+ * <pre>
+ * BenchmarkComparison baseline.json current.json [thresholdPercent]
+ * </pre>
+ * A benchmark counts as a regression when it is worse than the baseline by more than the threshold
+ * (10% by default) <em>and</em> by more than the two runs' combined error margins, so noisy
+ * benchmarks don't fail the comparison on their own.
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Path baselineFile = Paths.get(args[0]);
+        if (!Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile + "; copy a jmh-result.json there first.");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        Map<String, Result> baseline = read(baselineFile);
+        Map<String, Result> current = read(Paths.get(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-100s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-100s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            // Positive means worse: slower for time modes, fewer operations for throughput.
+            double change = (now.score - before.score) / before.score * 100;
+            if (now.higherIsBetter) {
+                change = -change;
+            }
+            boolean regressed = change > threshold
+                    && Math.abs(now.score - before.score) > now.error + before.error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-100s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(),
+                    before.score, now.score, change, regressed ? "  REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-100s %14s%n", missing, "not run");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+        System.out.println("No regressions beyond " + threshold + "%");
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                Result result = new Result();
+                result.score = metric.get("score").getAsDouble();
+                JsonElement error = metric.get("scoreError");
+                result.error = error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber()
+                        ? 0 : error.getAsDouble();
+                if (Double.isNaN(result.error)) {
+                    result.error = 0;
+                }
+                result.higherIsBetter = "thrpt".equals(run.get("mode").getAsString());
+                results.put(key(run), result);
+            }
+        }
+        return results;
+    }
+
+    /** Benchmark method plus its parameters in name order, e.g. {@code SearchBenchmark.seek {depth=deep, rows=10000}}. */
+    private static String key(JsonObject run) {
+        String benchmark = run.get("benchmark").getAsString();
+        benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        JsonObject params = run.getAsJsonObject("params");
+        if (params == null) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> param : params.entrySet()) {
+            sorted.put(param.getKey(), param.getValue().getAsString());
+        }
+        return benchmark + " " + sorted;
+    }
+
+    private static class Result {
+        double score;
+        double error;
+        boolean higherIsBetter;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.model.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-row operations and whole-table reads. {@link #getAll} materializes every row, so the 10M
+ * database needs a larger heap: {@code -Djmh.args="-jvmArgsAppend -Xmx8g"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityDAOBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private ConnectionPool pool;
+    private EntityDAO dao;
+    private UUID[] ids;
+    private int next;
+    private final Random random = new Random(7);
+    private final List<UUID> added = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = SeededDatabase.open(rows);
+        dao = new EntityDAOImpl(pool);
+        ids = SeededDatabase.sampleIds(pool, 1024).toArray(new UUID[0]);
+    }
+
+    /** Keeps the table at its seeded size so later iterations and runs measure the same thing. */
+    @TearDown(Level.Iteration)
+    public void removeAdded() {
+        if (!added.isEmpty()) {
+            dao.deleteAll(added);
+            added.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public UUID add() throws Exception {
+        Entity entity = SeededDatabase.newEntity(random);
+        dao.add(entity);
+        added.add(entity.getId());
+        return entity.getId();
+    }
+
+    @Benchmark
+    public Optional<Entity> get() {
+        return dao.get(ids[next++ % ids.length]);
+    }
+
+    @Benchmark
+    public int getCount() {
+        return dao.getCount(null, null);
+    }
+
+    @Benchmark
+    public int getCountMatching() {
+        return dao.getCount("alpha", "Letters Only");
+    }
+
+    @Benchmark
+    public List<Entity> getAll() {
+        return dao.getAll();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.KeysetPage;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning rows into objects: the same page read as full entities ({@link #entities}) and as
+ * list summaries ({@link #summaries}). Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}
+ * (bytes per operation; divide by {@code pageSize} for bytes per row).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"10", "500"})
+    public int pageSize;
+
+    @Param({"name", "createdAt"})
+    public String sortBy;
+
+    private ConnectionPool pool;
+    private EntityDAO dao;
+    private SearchCriteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = SeededDatabase.open(rows);
+        dao = new EntityDAOImpl(pool);
+        criteria = new SearchCriteria(null, "All", sortBy, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public KeysetPage<Entity> entities() {
+        return dao.seek(criteria, null, true, 0, pageSize);
+    }
+
+    @Benchmark
+    public KeysetPage<EntitySummary> summaries() {
+        return dao.seekSummaries(criteria, null, true, 0, pageSize);
+    }
+}
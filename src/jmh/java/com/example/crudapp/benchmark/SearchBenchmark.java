@@ -0,0 +1,104 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.KeysetPage;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.PageCursor;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of results for every search term / filter / sort combination, both near the start of the
+ * result set and 90% of the way through it. {@link #search} pays for the OFFSET; {@link #seek}
+ * continues from the previous page's last row the way the list view does when paging forward;
+ * {@link #page} and {@link #pageWithoutCount} fetch the page together with the total row count, or
+ * without it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"", "alpha"})
+    public String searchTerm;
+
+    @Param({"All", "Letters Only"})
+    public String filterBy;
+
+    @Param({"name", "createdAt", "relevance"})
+    public String sortBy;
+
+    @Param({"shallow", "deep"})
+    public String depth;
+
+    private ConnectionPool pool;
+    private EntityDAO dao;
+    private SearchCriteria criteria;
+    private int page;
+    private PageCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = SeededDatabase.open(rows);
+        dao = new EntityDAOImpl(pool);
+        criteria = new SearchCriteria(searchTerm, filterBy, sortBy, true);
+
+        int total = dao.getCount(searchTerm, filterBy);
+        int lastPage = Math.max(0, (total - 1) / PAGE_SIZE);
+        page = "deep".equals(depth) ? lastPage * 9 / 10 : 0;
+        if (page > 0) {
+            KeysetPage<Entity> previous = dao.seek(criteria, null, true, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+            cursor = previous.getLast();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public List<Entity> search() {
+        return dao.search(searchTerm, sortBy, true, filterBy, page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPage<Entity> seek() {
+        return dao.seek(criteria, cursor, true, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Entity> page() {
+        return dao.page(criteria, page, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public Page<Entity> pageWithoutCount() {
+        return dao.page(criteria, page, PAGE_SIZE, false);
+    }
+}
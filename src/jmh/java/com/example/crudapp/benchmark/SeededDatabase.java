@@ -0,0 +1,155 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.Database;
+import com.example.crudapp.dao.DatabaseConfig;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.model.Entity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Benchmark databases with a fixed number of rows, kept under {@code target/jmh-db} (or
+ * {@code -Dcrudapp.jmh.dbDir}) and reused between runs. Seeding the 10M-row database through
+ * {@link EntityDAO#addAll} takes a while, so it only happens once.
+ * <p>
+ * Rows are generated deterministically: about half of the names are a single run of letters (so the
+ * "Letters Only" filter has something to keep) and every description is drawn from a small vocabulary,
+ * so a term such as {@code alpha} matches a predictable share of the table.
+ */
+final class SeededDatabase {
+    static final String[] WORDS = {
+            "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel",
+            "india", "juliet", "kilo", "lima", "mike", "november", "oscar", "papa",
+            "quebec", "romeo", "sierra", "tango", "uniform", "victor", "whiskey", "xray",
+            "yankee", "zulu", "amber", "cobalt", "ember", "indigo", "jade", "onyx"
+    };
+
+    private static final int SEED_CHUNK = 50_000;
+
+    private SeededDatabase() {
+    }
+
+    /** Opens a pool on a database with at least {@code rows} rows, seeding it first if needed. */
+    static ConnectionPool open(int rows) {
+        Path file = directory().resolve("entities-" + rows + ".db");
+        seed(file, rows);
+
+        DatabaseConfig config = DatabaseConfig.fromSystemProperties();
+        config.setUrl("jdbc:sqlite:" + file);
+        return Database.createPool(config);
+    }
+
+    /** Up to {@code count} ids spread evenly over the table. */
+    static List<UUID> sampleIds(ConnectionPool pool, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT id FROM entities WHERE rowid % ? = 0 LIMIT ?")) {
+            pstmt.setLong(1, Math.max(1, rowCount(conn) / count));
+            pstmt.setInt(2, count);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(toUuid(rs.getObject("id")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error sampling benchmark ids", e);
+        }
+        return ids;
+    }
+
+    static Entity newEntity(Random random) {
+        String first = WORDS[random.nextInt(WORDS.length)];
+        String second = WORDS[random.nextInt(WORDS.length)];
+        String name = random.nextBoolean()
+                ? capitalize(first) + second
+                : capitalize(first) + " " + second + " " + random.nextInt(10_000);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return new Entity(null, name, description.toString(), null, null);
+    }
+
+    private static void seed(Path file, int rows) {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl("jdbc:sqlite:" + file);
+        config.setStorageProfile(StorageProfile.throughput());
+        config.setBatchChunkSize(5000);
+        try (ConnectionPool pool = Database.createPool(config)) {
+            long existing;
+            try (Connection conn = pool.getConnection()) {
+                existing = rowCount(conn);
+            }
+            if (existing >= rows) {
+                return;
+            }
+
+            EntityDAO dao = new EntityDAOImpl(pool);
+            Random random = new Random(existing);
+            long start = System.nanoTime();
+            for (long seeded = existing; seeded < rows; ) {
+                int chunk = (int) Math.min(SEED_CHUNK, rows - seeded);
+                List<Entity> entities = new ArrayList<>(chunk);
+                for (int i = 0; i < chunk; i++) {
+                    entities.add(newEntity(random));
+                }
+                dao.addAll(entities);
+                seeded += chunk;
+                System.err.printf("Seeding %s: %d/%d rows (%ds)%n",
+                        file.getFileName(), seeded, rows, (System.nanoTime() - start) / 1_000_000_000L);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeding benchmark database", e);
+        }
+    }
+
+    /** Ids are 16-byte BLOBs, or UUID text in a database that hasn't been converted yet. */
+    private static UUID toUuid(Object id) {
+        if (id instanceof byte[]) {
+            ByteBuffer bytes = ByteBuffer.wrap((byte[]) id);
+            return new UUID(bytes.getLong(), bytes.getLong());
+        }
+        return UUID.fromString(id.toString());
+    }
+
+    private static long rowCount(Connection conn) throws SQLException {
+        // MAX(rowid) is an index lookup; the benchmarks never leave gaps large enough to matter.
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT IFNULL(MAX(rowid), 0) FROM entities");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static Path directory() {
+        Path dir = Paths.get(System.getProperty("crudapp.jmh.dbDir", "target/jmh-db"));
+        try {
+            return Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
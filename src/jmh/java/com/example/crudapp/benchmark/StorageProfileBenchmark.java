@@ -0,0 +1,145 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.Database;
+import com.example.crudapp.dao.DatabaseConfig;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.KeysetPage;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.model.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The storage profiles against the old rollback-journal setup, on a fresh database each: autocommitted
+ * single-row {@link #add}s, {@link #addAll} in rows per second, and the {@code mixed} group, where
+ * readers run alongside a writer, which is where WAL stops them blocking each other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageProfileBenchmark {
+    private static final int BATCH_ROWS = 1000;
+    private static final SearchCriteria BY_NAME = new SearchCriteria(null, null, "name", true);
+
+    /** {@code rollback} is the durable profile with {@code journal_mode=DELETE}. */
+    @Param({"rollback", "durable", "throughput"})
+    public String profile;
+
+    private Path dir;
+    private ConnectionPool pool;
+    private EntityDAO dao;
+    private final Random random = new Random(7);
+    private final Queue<UUID> added = new ConcurrentLinkedQueue<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StorageProfile storage;
+        if (profile.equals("rollback")) {
+            storage = StorageProfile.durable();
+            storage.setJournalMode("DELETE");
+        } else {
+            storage = StorageProfile.named(profile);
+        }
+        dir = Files.createTempDirectory("crudapp-jmh-storage");
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl("jdbc:sqlite:" + dir.resolve("bench.db"));
+        config.setStorageProfile(storage);
+        pool = Database.createPool(config);
+        dao = new EntityDAOImpl(pool);
+    }
+
+    /** Keeps the table empty between iterations so they measure the same thing. */
+    @TearDown(Level.Iteration)
+    public void removeAdded() {
+        List<UUID> ids = new ArrayList<>(added);
+        if (!ids.isEmpty()) {
+            dao.deleteAll(ids);
+            added.removeAll(ids);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public UUID add() throws Exception {
+        return addOne();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_ROWS)
+    public int addAll() {
+        List<Entity> batch = new ArrayList<>(BATCH_ROWS);
+        for (int i = 0; i < BATCH_ROWS; i++) {
+            batch.add(SeededDatabase.newEntity(random));
+        }
+        int succeeded = dao.addAll(batch).getSucceeded();
+        for (Entity entity : batch) {
+            added.add(entity.getId());
+        }
+        return succeeded;
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public KeysetPage<Entity> mixedRead() {
+        dao.getCount(null, null);
+        return dao.seek(BY_NAME, null, true, 0, 10);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public UUID mixedWrite() throws Exception {
+        return addOne();
+    }
+
+    private UUID addOne() throws Exception {
+        Entity entity;
+        synchronized (random) {
+            entity = SeededDatabase.newEntity(random);
+        }
+        dao.add(entity);
+        added.add(entity.getId());
+        return entity.getId();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.crudapp;
 
+import com.example.crudapp.dao.Database;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -21,6 +22,11 @@ public class MainApp extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        Database.getPool().close();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,25 @@
+package com.example.crudapp.cache;
+
+/**
+ * A bounded, thread-safe in-memory cache. Values must not be {@code null}; {@link #getIfPresent}
+ * returns {@code null} for absent keys.
+ */
+public interface Cache<K, V> {
+    V getIfPresent(K key);
+    void put(K key, V value);
+    void invalidate(K key);
+    void invalidateAll();
+    int size();
+    CacheStats stats();
+
+    static <K, V> Cache<K, V> create(EvictionPolicy policy, int maximumSize) {
+        switch (policy) {
+            case LRU:
+                return new LruCache<>(maximumSize);
+            case TINY_LFU:
+                return new TinyLfuCache<>(maximumSize);
+            default:
+                throw new IllegalArgumentException("Unknown eviction policy: " + policy);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.crudapp.cache;
+
+/**
+ * Point-in-time snapshot of {@link Cache} usage.
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final long weight;
+    private final long maximumWeight;
+
+    CacheStats(long hits, long misses, long evictions, int size, long weight, long maximumWeight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.weight = weight;
+        this.maximumWeight = maximumWeight;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Entries dropped to stay within the size bound; explicit invalidations are not counted. */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Total weight of the entries; equal to the size unless the cache has a {@link Weigher}. */
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /** Share of lookups answered from the cache, between 0 and 1. */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", size=" + size + ", weight=" + weight + "/" + maximumWeight + "]";
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.crudapp.cache;
+
+import java.util.Locale;
+
+public enum EvictionPolicy {
+    /** Evicts the least recently used entry. Cheap, but one long scan flushes everything useful. */
+    LRU,
+    /**
+     * Window TinyLFU: new entries go through a small LRU window and only displace an established entry
+     * if they have been requested more often recently, so bursts of one-off reads don't evict the
+     * entities that are read over and over.
+     */
+    TINY_LFU;
+
+    /** Parses {@code lru}, {@code tinylfu} or {@code tiny_lfu}, ignoring case. */
+    public static EvictionPolicy parse(String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace("-", "_");
+        if (normalized.equals("TINYLFU") || normalized.equals("W_TINYLFU")) {
+            return TINY_LFU;
+        }
+        return valueOf(normalized);
+    }
+}
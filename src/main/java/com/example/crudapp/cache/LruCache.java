@@ -0,0 +1,68 @@
+package com.example.crudapp.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache on an access-ordered {@link LinkedHashMap}.
+ */
+public class LruCache<K, V> implements Cache<K, V> {
+    private final int maximumSize;
+    private final Map<K, V> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative.");
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized V getIfPresent(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), entries.size(), maximumSize);
+    }
+}
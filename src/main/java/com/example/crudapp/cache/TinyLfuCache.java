@@ -0,0 +1,137 @@
+package com.example.crudapp.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Window TinyLFU cache. About 1% of the capacity is an LRU admission window; the rest is a segmented
+ * LRU split into a probation segment (20%) and a protected segment (80%) for entries that were hit
+ * again while on probation. When the window overflows, its oldest entry competes with the oldest
+ * probation entry and the one with the higher {@link FrequencySketch} estimate stays.
+ */
+public class TinyLfuCache<K, V> implements Cache<K, V> {
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int mainMaximum;
+    private final int protectedMaximum;
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch<K> sketch;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative.");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = maximumSize == 0 ? 0 : Math.max(1, maximumSize / 100);
+        this.mainMaximum = maximumSize - windowMaximum;
+        this.protectedMaximum = mainMaximum * 80 / 100;
+        this.sketch = new FrequencySketch<>(maximumSize);
+    }
+
+    @Override
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                protect(key, value);
+            } else {
+                value = protectedSegment.get(key);
+            }
+        }
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        if (maximumSize == 0) {
+            return;
+        }
+        if (window.containsKey(key)) {
+            window.put(key, value);
+        } else if (probation.containsKey(key)) {
+            probation.put(key, value);
+        } else if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+        } else {
+            window.put(key, value);
+            if (window.size() > windowMaximum) {
+                admit(removeEldest(window));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, size(), size(), maximumSize);
+    }
+
+    /** Moves an entry that left the window into the main space, or drops it if it loses to the victim. */
+    private void admit(Map.Entry<K, V> candidate) {
+        if (probation.size() + protectedSegment.size() < mainMaximum) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        K victim = eldestKey(probation.isEmpty() ? protectedSegment : probation);
+        evictions++;
+        if (victim == null || sketch.frequency(candidate.getKey()) <= sketch.frequency(victim)) {
+            return;
+        }
+        if (probation.remove(victim) == null) {
+            protectedSegment.remove(victim);
+        }
+        probation.put(candidate.getKey(), candidate.getValue());
+    }
+
+    /** Promotes a probation hit, demoting the protected segment's oldest entry back to probation if it is full. */
+    private void protect(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedMaximum) {
+            Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+        Map.Entry<K, V> first = iterator.next();
+        Map.Entry<K, V> eldest = Map.entry(first.getKey(), first.getValue());
+        iterator.remove();
+        return eldest;
+    }
+
+    private static <K> K eldestKey(LinkedHashMap<K, ?> segment) {
+        return segment.isEmpty() ? null : segment.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.crudapp.cache;
+
+/**
+ * Estimates how much memory a cache entry holds, for caches bounded by a byte budget rather than an
+ * entry count.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    long weigh(K key, V value);
+}
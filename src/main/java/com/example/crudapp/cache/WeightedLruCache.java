@@ -0,0 +1,92 @@
+package com.example.crudapp.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Least-recently-used cache bounded by total weight, e.g. estimated bytes, instead of entry count.
+ * An entry heavier than the whole budget is not stored at all.
+ */
+public class WeightedLruCache<K, V> implements Cache<K, V> {
+    private final long maximumWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final LinkedHashMap<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public WeightedLruCache(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Cache weight must not be negative.");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    @Override
+    public synchronized V getIfPresent(K key) {
+        Weighted<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        long entryWeight = weigher.weigh(key, value);
+        if (entryWeight > maximumWeight) {
+            invalidate(key);
+            return;
+        }
+        Weighted<V> previous = entries.put(key, new Weighted<>(value, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+
+        Iterator<Weighted<V>> eldest = entries.values().iterator();
+        while (weight > maximumWeight) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        Weighted<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), weight, maximumWeight);
+    }
+
+    private static class Weighted<V> {
+        final V value;
+        final long weight;
+
+        Weighted(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.dao.AsyncEntityDAO;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Search-as-you-type: debounces keystrokes, keeps at most one query in flight and coalesces input that
+ * arrives meanwhile, and filters in memory with {@link EntityDAO#termMatcher} when a longer term can
+ * only narrow a complete result of at most {@link #REFINE_LIMIT} rows.
+ */
+class IncrementalSearch implements AutoCloseable {
+    static final long DEBOUNCE_MILLIS = 200;
+    static final int REFINE_LIMIT = 200;
+
+    private static final Logger LOG = Logger.getLogger(IncrementalSearch.class.getName());
+
+    /** Runs a task after a delay; the returned future cancels it. */
+    @FunctionalInterface
+    interface Timer {
+        Future<?> schedule(Runnable task, long delayMillis);
+    }
+
+    /** The first page of results for one settled search term. */
+    static final class Result {
+        private final SearchCriteria criteria;
+        private final List<EntitySummary> items;
+        private final int total;
+        private final boolean refined;
+        private final long latencyNanos;
+
+        Result(SearchCriteria criteria, List<EntitySummary> items, int total, boolean refined, long latencyNanos) {
+            this.criteria = criteria;
+            this.items = items;
+            this.total = total;
+            this.refined = refined;
+            this.latencyNanos = latencyNanos;
+        }
+
+        SearchCriteria getCriteria() {
+            return criteria;
+        }
+
+        List<EntitySummary> getItems() {
+            return items;
+        }
+
+        int getTotal() {
+            return total;
+        }
+
+        /** Whether the results were narrowed in memory rather than queried. */
+        boolean isRefined() {
+            return refined;
+        }
+
+        /** From the last keystroke these results include to their delivery. */
+        long getLatencyNanos() {
+            return latencyNanos;
+        }
+    }
+
+    /** Every row matching some criteria, or just the first {@link #REFINE_LIMIT} when {@code complete} is false. */
+    private static final class Rows {
+        final List<Entity> rows;
+        final int total;
+        final boolean complete;
+        final boolean refined;
+
+        Rows(List<Entity> rows, int total, boolean complete, boolean refined) {
+            this.rows = rows;
+            this.total = total;
+            this.complete = complete;
+            this.refined = refined;
+        }
+    }
+
+    private final AsyncEntityDAO async;
+    private final int pageSize;
+    private final Timer timer;
+    private final long debounceMillis;
+    private final Executor uiExecutor;
+    private final Consumer<Result> listener;
+    private final LongSupplier clock;
+
+    private SearchCriteria pending;
+    private long pendingSince;
+    private Future<?> debounce;
+    private boolean inFlight;
+    private SearchCriteria completeCriteria;
+    private List<Entity> completeRows;
+    private int generation;
+
+    IncrementalSearch(AsyncEntityDAO async, int pageSize, Executor uiExecutor, Consumer<Result> listener) {
+        this(async, pageSize, daemonTimer(), DEBOUNCE_MILLIS, uiExecutor, listener, System::nanoTime);
+    }
+
+    IncrementalSearch(AsyncEntityDAO async, int pageSize, Timer timer, long debounceMillis, Executor uiExecutor,
+                      Consumer<Result> listener, LongSupplier clock) {
+        this.async = async;
+        this.pageSize = pageSize;
+        this.timer = timer;
+        this.debounceMillis = debounceMillis;
+        this.uiExecutor = uiExecutor;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /** Records a keystroke; the search runs once input has been idle for the debounce delay. */
+    synchronized void update(SearchCriteria criteria) {
+        pending = criteria;
+        pendingSince = clock.getAsLong();
+        cancelDebounce();
+        debounce = timer.schedule(this::settled, debounceMillis);
+    }
+
+    /** Searches without waiting for the debounce delay, e.g. when Enter is pressed. */
+    synchronized void searchNow(SearchCriteria criteria) {
+        pending = criteria;
+        pendingSince = clock.getAsLong();
+        cancelDebounce();
+        if (!inFlight) {
+            start();
+        }
+    }
+
+    /** Forgets the rows kept for refinement, e.g. after the data has changed. */
+    synchronized void invalidate() {
+        generation++;
+        completeCriteria = null;
+        completeRows = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        cancelDebounce();
+        pending = null;
+    }
+
+    private synchronized void settled() {
+        debounce = null;
+        if (!inFlight) {
+            start();
+        }
+        // Otherwise finished() starts it.
+    }
+
+    private void start() {
+        if (pending == null) {
+            return;
+        }
+        SearchCriteria criteria = pending;
+        long since = pendingSince;
+        int startedIn = generation;
+        List<Entity> base = canRefine(criteria) ? completeRows : null;
+        pending = null;
+        inFlight = true;
+        async.submit(dao -> fetch(dao, criteria, base))
+                .whenComplete((rows, error) -> finished(criteria, since, startedIn, rows, error));
+    }
+
+    private Rows fetch(EntityDAO dao, SearchCriteria criteria, List<Entity> base) {
+        if (base != null) {
+            Predicate<Entity> matcher = dao.termMatcher(criteria.getSearchTerm());
+            if (matcher != null) {
+                List<Entity> rows = new ArrayList<>();
+                for (Entity entity : base) {
+                    if (matcher.test(entity)) {
+                        rows.add(entity);
+                    }
+                }
+                return new Rows(rows, rows.size(), true, true);
+            }
+        }
+        Page<Entity> page = dao.page(criteria, 0, REFINE_LIMIT, true);
+        return new Rows(page.getItems(), page.getTotal(), page.getTotal() <= REFINE_LIMIT, false);
+    }
+
+    private synchronized void finished(SearchCriteria criteria, long since, int startedIn, Rows rows, Throwable error) {
+        inFlight = false;
+        if (error != null) {
+            LOG.log(Level.WARNING, "Search failed", AsyncEntityDAO.cause(error));
+        } else if (startedIn == generation) {
+            completeCriteria = rows.complete ? criteria : null;
+            completeRows = rows.complete ? rows.rows : null;
+        }
+
+        if (pending != null) {
+            // Newer input arrived while this ran: its query replaces this result.
+            if (debounce == null) {
+                start();
+            }
+            return;
+        }
+        if (error == null) {
+            // Summaries, so the rows kept for refinement can't be changed through the list.
+            List<EntitySummary> items = new ArrayList<>();
+            for (Entity entity : rows.rows.subList(0, Math.min(pageSize, rows.rows.size()))) {
+                items.add(new EntitySummary(entity.getId(), entity.getName()));
+            }
+            Result result = new Result(criteria, items, rows.total, rows.refined, clock.getAsLong() - since);
+            uiExecutor.execute(() -> listener.accept(result));
+        }
+    }
+
+    /** Whether the kept rows contain every row matching {@code criteria}, so filtering them is enough. */
+    private boolean canRefine(SearchCriteria criteria) {
+        if (completeRows == null
+                || "relevance".equalsIgnoreCase(criteria.getSortBy())
+                || !Objects.equals(criteria.getFilterBy(), completeCriteria.getFilterBy())
+                || !Objects.equals(criteria.getSortBy(), completeCriteria.getSortBy())
+                || criteria.isSortAsc() != completeCriteria.isSortAsc()
+                || !Objects.equals(criteria.getDateFrom(), completeCriteria.getDateFrom())
+                || !Objects.equals(criteria.getDateTo(), completeCriteria.getDateTo())
+                || !Objects.equals(criteria.getRegex(), completeCriteria.getRegex())) {
+            return false;
+        }
+        // A longer term matches a subset of what its prefix matched, both as a substring and as word
+        // prefixes. A term without letters or digits is LIKE-matched even with full-text search on,
+        // and extending it with a word would switch matchers.
+        String previous = term(completeCriteria);
+        return term(criteria).startsWith(previous) && (previous.isEmpty() || hasWord(previous));
+    }
+
+    private static boolean hasWord(String term) {
+        return term.codePoints().anyMatch(Character::isLetterOrDigit);
+    }
+
+    private static String term(SearchCriteria criteria) {
+        return criteria.getSearchTerm() == null ? "" : criteria.getSearchTerm().trim();
+    }
+
+    private void cancelDebounce() {
+        if (debounce != null) {
+            debounce.cancel(false);
+            debounce = null;
+        }
+    }
+
+    private static Timer daemonTimer() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "incremental-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return (task, delayMillis) -> scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.dao.CountEstimate;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.KeysetPage;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.PageCursor;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps Pagination page indexes onto {@link EntityDAO#seek} calls, seeking from the nearest remembered
+ * page boundary (or the first or last row) instead of counting rows from the start. The total comes
+ * with the first page for new criteria, or as an {@linkplain #setEstimateLimit estimate} that
+ * {@link #refine} later replaces; an estimated end is never sought from. DAO calls run outside the lock,
+ * and what they return is only remembered if the criteria haven't changed and nothing was invalidated
+ * meanwhile.
+ *
+ * @param <T> the row type, see {@link #entities} and {@link #summaries}
+ */
+class KeysetPaginator<T> {
+    private static final int MAX_REMEMBERED_PAGES = 64;
+
+    /** The DAO calls a paginator makes, for one row type. */
+    private interface Source<T> {
+        KeysetPage<T> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize);
+
+        Page<T> page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount);
+
+        CountEstimate estimateCount(SearchCriteria criteria, int limit);
+    }
+
+    private final Source<T> source;
+    private final int pageSize;
+    private final Map<Integer, KeysetPage<T>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, KeysetPage<T>> eldest) {
+            return size() > MAX_REMEMBERED_PAGES;
+        }
+    };
+    private SearchCriteria criteria;
+    /** Bumped whenever remembered pages and the total are dropped. */
+    private long generation;
+    private int total = -1;
+    private boolean totalExact = true;
+    private int estimateLimit;
+
+    private KeysetPaginator(Source<T> source, int pageSize) {
+        this.source = source;
+        this.pageSize = pageSize;
+    }
+
+    /** Pages of full entities, from {@link EntityDAO#seek} and {@link EntityDAO#page}. */
+    static KeysetPaginator<Entity> entities(EntityDAO entityDAO, int pageSize) {
+        return new KeysetPaginator<>(new Source<>() {
+            @Override
+            public KeysetPage<Entity> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int size) {
+                return entityDAO.seek(criteria, cursor, forward, skip, size);
+            }
+
+            @Override
+            public Page<Entity> page(SearchCriteria criteria, int pageIndex, int size, boolean exactCount) {
+                return entityDAO.page(criteria, pageIndex, size, exactCount);
+            }
+
+            @Override
+            public CountEstimate estimateCount(SearchCriteria criteria, int limit) {
+                return entityDAO.estimateCount(criteria, limit);
+            }
+        }, pageSize);
+    }
+
+    /** Pages of summaries, from {@link EntityDAO#seekSummaries} and {@link EntityDAO#pageSummaries}. */
+    static KeysetPaginator<EntitySummary> summaries(EntityDAO entityDAO, int pageSize) {
+        return new KeysetPaginator<>(new Source<>() {
+            @Override
+            public KeysetPage<EntitySummary> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int size) {
+                return entityDAO.seekSummaries(criteria, cursor, forward, skip, size);
+            }
+
+            @Override
+            public Page<EntitySummary> page(SearchCriteria criteria, int pageIndex, int size, boolean exactCount) {
+                return entityDAO.pageSummaries(criteria, pageIndex, size, exactCount);
+            }
+
+            @Override
+            public CountEstimate estimateCount(SearchCriteria criteria, int limit) {
+                return entityDAO.estimateCount(criteria, limit);
+            }
+        }, pageSize);
+    }
+
+    /**
+     * Above how many matching rows the total may be estimated rather than counted; 0, the default,
+     * always counts.
+     */
+    synchronized void setEstimateLimit(int estimateLimit) {
+        if (estimateLimit < 0) {
+            throw new IllegalArgumentException("Estimate limit must not be negative.");
+        }
+        this.estimateLimit = estimateLimit;
+    }
+
+    /**
+     * Replaces an estimated total with the exact {@code total}, unless the criteria have changed or the
+     * total has been forgotten since.
+     *
+     * @return whether the total was replaced
+     */
+    synchronized boolean refine(SearchCriteria criteria, int total) {
+        if (!criteria.equals(this.criteria) || this.total < 0) {
+            return false;
+        }
+        this.total = total;
+        totalExact = true;
+        return true;
+    }
+
+    /** Forgets remembered page boundaries and the row count, e.g. after the data has changed. */
+    synchronized void invalidate() {
+        forget();
+    }
+
+    /**
+     * Loads a page, counting (or estimating) the matching rows in the same call if the count isn't known
+     * yet. {@link Page#isTotalExact()} tells whether the total is an estimate.
+     */
+    Page<T> load(SearchCriteria criteria, int pageIndex) {
+        long loadGeneration;
+        int knownTotal;
+        boolean knownExact;
+        int limit;
+        synchronized (this) {
+            reset(criteria);
+            loadGeneration = generation;
+            knownTotal = total;
+            knownExact = totalExact;
+            limit = estimateLimit;
+        }
+        if (knownTotal < 0) {
+            Page<T> page = source.page(criteria, pageIndex, pageSize, limit == 0);
+            knownTotal = page.getTotal();
+            knownExact = true;
+            if (!page.isTotalExact() && (page.hasNext() || page.getItems().isEmpty() && pageIndex > 0)) {
+                // Without a next page (and not past the end) the rows up to here are all there is.
+                CountEstimate estimate = source.estimateCount(criteria, limit);
+                knownTotal = Math.max(knownTotal, estimate.getCount());
+                knownExact = estimate.isExact();
+            }
+            int lastPage = Math.max(0, (knownTotal - 1) / pageSize);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    total = knownTotal;
+                    totalExact = knownExact;
+                    if (pageIndex <= lastPage) {
+                        remember(pageIndex, page);
+                    }
+                }
+            }
+            if (pageIndex <= lastPage) {
+                return new Page<>(page.getItems(), page.getFirst(), page.getLast(), page.hasNext(), knownTotal, knownExact);
+            }
+            // The page no longer exists, e.g. after deleting the last row on it; show the new last page.
+            pageIndex = lastPage;
+        }
+        KeysetPage<T> page = seek(criteria, pageIndex, knownTotal, knownExact);
+        boolean hasNext = (pageIndex + 1) * pageSize < knownTotal;
+        return new Page<>(page.getItems(), page.getFirst(), page.getLast(), hasNext, knownTotal, knownExact);
+    }
+
+    List<T> load(SearchCriteria criteria, int pageIndex, int totalItems) {
+        boolean exact;
+        synchronized (this) {
+            reset(criteria);
+            exact = totalExact;
+        }
+        return seek(criteria, pageIndex, totalItems, exact).getItems();
+    }
+
+    private KeysetPage<T> seek(SearchCriteria criteria, int pageIndex, int totalItems, boolean exact) {
+        int lastPage = Math.max(0, (totalItems - 1) / pageSize);
+        int rowsOnLastPage = totalItems - lastPage * pageSize;
+
+        // From the first row.
+        PageCursor cursor = null;
+        boolean forward = true;
+        int skip = pageIndex * pageSize;
+        int size = pageSize;
+
+        // From the last row, walking backwards; an estimated total doesn't say where that is.
+        if (exact && pageIndex <= lastPage && totalItems > 0) {
+            int fromEnd = pageIndex == lastPage ? 0 : rowsOnLastPage + (lastPage - 1 - pageIndex) * pageSize;
+            if (fromEnd < skip) {
+                forward = false;
+                skip = fromEnd;
+                size = pageIndex == lastPage ? rowsOnLastPage : pageSize;
+            }
+        }
+
+        long seekGeneration;
+        synchronized (this) {
+            reset(criteria);
+            seekGeneration = generation;
+            // From a page we have already shown.
+            for (Map.Entry<Integer, KeysetPage<T>> entry : pages.entrySet()) {
+                int known = entry.getKey();
+                KeysetPage<T> page = entry.getValue();
+                if (known == pageIndex || page.getFirst() == null) {
+                    continue;
+                }
+                int distance = (Math.abs(known - pageIndex) - 1) * pageSize;
+                if (distance < skip || cursor == null && distance == skip) {
+                    cursor = known < pageIndex ? page.getLast() : page.getFirst();
+                    forward = known < pageIndex;
+                    skip = distance;
+                    size = pageSize;
+                }
+            }
+        }
+
+        KeysetPage<T> page = source.seek(criteria, cursor, forward, skip, size);
+        synchronized (this) {
+            if (generation == seekGeneration) {
+                remember(pageIndex, page);
+            }
+        }
+        return page;
+    }
+
+    /** Keeps a page's boundaries, but not its rows: those are the caller's to keep or drop. */
+    private void remember(int pageIndex, KeysetPage<T> page) {
+        pages.put(pageIndex, new KeysetPage<>(List.of(), page.getFirst(), page.getLast(), page.hasMore()));
+    }
+
+    private void reset(SearchCriteria criteria) {
+        if (!criteria.equals(this.criteria)) {
+            this.criteria = criteria;
+            forget();
+        }
+    }
+
+    private void forget() {
+        pages.clear();
+        total = -1;
+        totalExact = true;
+        generation++;
+    }
+}
@@ -1,27 +1,49 @@
 package com.example.crudapp.controller;
 
+import com.example.crudapp.dao.AsyncEntityDAO;
+import com.example.crudapp.dao.CachingEntityDAO;
+import com.example.crudapp.dao.Database;
 import com.example.crudapp.dao.EntityDAO;
 import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.InstrumentedEntityDAO;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.SearchCriteria;
 import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntityConflictException;
+import com.example.crudapp.model.EntitySummary;
 import com.example.crudapp.model.ValidationException;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class MainController {
 
+    private static final Logger LOG = Logger.getLogger(MainController.class.getName());
     private static final int PAGE_SIZE = 10;
+    private static final String VIEW_CHANNEL = "view";
+    private static final String DETAILS_CHANNEL = "details";
+    private static final String COUNT_CHANNEL = "count";
+    /** Results with more matches than this get an estimated page count first, then the exact one. */
+    private static final int COUNT_ESTIMATE_LIMIT = 1000;
+    private static final double SCROLL_MODE_CELL_SIZE = 24;
 
     @FXML
-    ListView<Entity> entityListView; // Changed to package-private
+    ListView<EntitySummary> entityListView; // Changed to package-private
     @FXML
     private VBox entityDetailsVBox;
     @FXML
@@ -40,10 +62,24 @@ public class MainController {
     private ComboBox<String> sortComboBox;
     @FXML
     private ComboBox<String> filterComboBox;
+    @FXML
+    private CheckBox scrollModeCheckBox;
+    @FXML
+    private Label resultCountLabel;
 
-    private final EntityDAO entityDAO = new EntityDAOImpl();
-    private final ObservableList<Entity> entityList = FXCollections.observableArrayList();
+    private final EntityDAO entityDAO = new CachingEntityDAO(
+            new InstrumentedEntityDAO(new EntityDAOImpl(), Database.getMetrics()), Database.getPool().getConfig());
+    private final ObservableList<EntitySummary> entityList = FXCollections.observableArrayList();
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private KeysetPaginator<EntitySummary> paginator;
+    private KeysetPaginator<EntitySummary> blockPaginator;
+    private VirtualEntityList virtualList;
+    private IncrementalSearch search;
+    private AsyncEntityDAO asyncDAO;
+    private Executor backgroundExecutor;
+    private Executor uiExecutor = Platform::runLater;
+    private CompletableFuture<Page<EntitySummary>> pendingView;
+    private boolean showingSearchResult;
 
     private Supplier<Dialog<ButtonType>> dialogSupplier = () -> {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -56,6 +92,18 @@ public class MainController {
         this.dialogSupplier = dialogSupplier;
     }
 
+    /**
+     * Where DAO calls run and where their results are applied; tests pass {@code Runnable::run} for both
+     * to make the controller synchronous. By default DAO calls run on {@link AsyncEntityDAO}'s own threads
+     * and results are applied with {@link Platform#runLater}.
+     */
+    void setExecutors(Executor backgroundExecutor, Executor uiExecutor) {
+        this.backgroundExecutor = backgroundExecutor;
+        this.uiExecutor = uiExecutor;
+        this.asyncDAO = null;
+        this.search = null;
+    }
+
     @FXML
     public void initialize() {
         entityListView.setItems(entityList);
@@ -64,13 +112,22 @@ public class MainController {
         entityListView.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> showEntityDetails(newValue));
 
+        entityListView.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(EntitySummary item, boolean empty) {
+                super.updateItem(item, empty);
+                // In scroll mode a row whose block is still loading has no item yet.
+                setText(empty ? null : item == null ? "Loading..." : item.getName());
+            }
+        });
+
         entityListView.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
                 handleEditEntity();
             }
         });
 
-        sortComboBox.setItems(FXCollections.observableArrayList("Date", "Name (A-Z)", "Name (Z-A)"));
+        sortComboBox.setItems(FXCollections.observableArrayList("Date", "Name (A-Z)", "Name (Z-A)", "Relevance"));
         sortComboBox.getSelectionModel().selectFirst();
         sortComboBox.valueProperty().addListener((obs, oldVal, newVal) -> updateView());
 
@@ -78,47 +135,254 @@ public class MainController {
         filterComboBox.getSelectionModel().selectFirst();
         filterComboBox.valueProperty().addListener((obs, oldVal, newVal) -> updateView());
 
-        pagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> updateView());
+        pagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> {
+            if (!showingSearchResult) {
+                updateView();
+            }
+        });
+
+        searchField.textProperty().addListener((obs, oldText, newText) -> search().update(criteria()));
+
+        scrollModeCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> setScrollMode(newVal));
 
         updateView();
     }
 
+    /**
+     * Reloads the current page, and the row count if it isn't known, in the background. Only the newest request is applied:
+     * a newer call cancels the previous one, and a result that arrives after it was superseded is dropped.
+     */
     private void updateView() {
-        String searchTerm = searchField.getText();
+        if (scrollMode()) {
+            updateScrollView();
+            return;
+        }
+        SearchCriteria criteria = criteria();
+        int pageIndex = pagination.getCurrentPageIndex();
+        KeysetPaginator<EntitySummary> paginator = paginator();
+
+        CompletableFuture<Page<EntitySummary>> request = async().latest(VIEW_CHANNEL, dao -> paginator.load(criteria, pageIndex));
+        pendingView = request;
+        request.whenCompleteAsync((page, error) -> {
+            if (request != pendingView) {
+                return;
+            }
+            if (error != null) {
+                if (!(AsyncEntityDAO.cause(error) instanceof CancellationException)) {
+                    LOG.log(Level.WARNING, "Failed to load entities", AsyncEntityDAO.cause(error));
+                }
+                return;
+            }
+            pagination.setPageCount(Math.max(1, (int) Math.ceil((double) page.getTotal() / PAGE_SIZE)));
+            showResultCount(page.getTotal(), page.isTotalExact());
+            if (!page.isTotalExact()) {
+                refineCount(criteria, paginator);
+            }
+            if (request != pendingView) {
+                // The page count moved the current page, which already started a newer load.
+                return;
+            }
+            entityList.setAll(page.getItems());
+            entityDetailsVBox.setVisible(false);
+        }, uiExecutor);
+    }
+
+    /**
+     * Counts the rows of a result whose size was only estimated, in the background, and corrects the
+     * page count once done, unless the criteria or the data have changed in the meantime.
+     */
+    private void refineCount(SearchCriteria criteria, KeysetPaginator<EntitySummary> paginator) {
+        CompletableFuture<Integer> request = async().latest(COUNT_CHANNEL,
+                dao -> dao.getCount(criteria.getSearchTerm(), criteria.getFilterBy()));
+        request.whenCompleteAsync((total, error) -> {
+            if (error != null) {
+                if (!(AsyncEntityDAO.cause(error) instanceof CancellationException)) {
+                    LOG.log(Level.WARNING, "Failed to count entities", AsyncEntityDAO.cause(error));
+                }
+                return;
+            }
+            if (scrollMode() || !criteria.equals(criteria()) || !paginator.refine(criteria, total)) {
+                return;
+            }
+            showResultCount(total, true);
+            pagination.setPageCount(Math.max(1, (int) Math.ceil((double) total / PAGE_SIZE)));
+        }, uiExecutor);
+    }
+
+    /** "1,234 results", or "~1,200 results" while the count is an estimate. */
+    private void showResultCount(int total, boolean exact) {
+        if (resultCountLabel != null) {
+            resultCountLabel.setText(String.format("%s%,d results", exact ? "" : "~", total));
+        }
+    }
+
+    /**
+     * Scroll mode: replaces the list with a {@link VirtualEntityList} for the current criteria, once the
+     * row count and the first block are in. The selected row stays selected, by position, if it still exists.
+     */
+    private void updateScrollView() {
+        SearchCriteria criteria = criteria();
+        KeysetPaginator<EntitySummary> paginator = blockPaginator();
+
+        CompletableFuture<Page<EntitySummary>> request = async().latest(VIEW_CHANNEL, dao -> paginator.load(criteria, 0));
+        pendingView = request;
+        request.whenCompleteAsync((firstBlock, error) -> {
+            if (request != pendingView) {
+                return;
+            }
+            if (error != null) {
+                if (!(AsyncEntityDAO.cause(error) instanceof CancellationException)) {
+                    LOG.log(Level.WARNING, "Failed to load entities", AsyncEntityDAO.cause(error));
+                }
+                return;
+            }
+            int selected = entityListView.getSelectionModel().getSelectedIndex();
+            if (virtualList != null) {
+                virtualList.dispose();
+            }
+            virtualList = new VirtualEntityList(async(), paginator, criteria, firstBlock, uiExecutor);
+            showResultCount(firstBlock.getTotal(), true);
+            entityListView.setItems(virtualList);
+            entityDetailsVBox.setVisible(false);
+            if (selected >= 0 && selected < virtualList.size()) {
+                entityListView.getSelectionModel().select(selected);
+                entityListView.scrollTo(selected);
+            }
+        }, uiExecutor);
+    }
+
+    /**
+     * Switches between paging through {@link #PAGE_SIZE} rows at a time and scrolling through every
+     * matching row. Scroll mode uses a fixed cell size so the ListView only ever asks for visible rows.
+     */
+    private void setScrollMode(boolean scroll) {
+        pagination.setVisible(!scroll);
+        pagination.setManaged(!scroll);
+        entityListView.setFixedCellSize(scroll ? SCROLL_MODE_CELL_SIZE : Region.USE_COMPUTED_SIZE);
+        if (!scroll) {
+            if (virtualList != null) {
+                virtualList.dispose();
+                virtualList = null;
+            }
+            entityListView.setItems(entityList);
+        }
+        updateView();
+    }
+
+    private boolean scrollMode() {
+        return scrollModeCheckBox != null && scrollModeCheckBox.isSelected();
+    }
+
+    /** Shows the first page of search-as-you-type results, unless the view has moved on since they were asked for. */
+    private void showSearchResult(IncrementalSearch.Result result) {
+        if (!result.getCriteria().equals(criteria())) {
+            return;
+        }
+        if (scrollMode()) {
+            // Only the first page was fetched; the scrolling list needs the whole result.
+            updateView();
+            return;
+        }
+        LOG.fine(() -> String.format("Search for '%s' answered in %.1f ms (%s)", result.getCriteria().getSearchTerm(),
+                result.getLatencyNanos() / 1e6, result.isRefined() ? "refined in memory" : "queried"));
+        // Drop any page load still running for older input.
+        pendingView = null;
+        showingSearchResult = true;
+        try {
+            pagination.setPageCount(Math.max(1, (int) Math.ceil((double) result.getTotal() / PAGE_SIZE)));
+            pagination.setCurrentPageIndex(0);
+            showResultCount(result.getTotal(), true);
+        } finally {
+            showingSearchResult = false;
+        }
+        entityList.setAll(result.getItems());
+        entityDetailsVBox.setVisible(false);
+    }
+
+    private SearchCriteria criteria() {
         String sortBy = sortComboBox.getValue();
-        String filterBy = filterComboBox.getValue();
         boolean sortAsc = !"Name (Z-A)".equals(sortBy);
+        return new SearchCriteria(searchField.getText(), filterComboBox.getValue(), sortColumn(sortBy), sortAsc);
+    }
 
-        int currentPage = pagination.getCurrentPageIndex() + 1;
+    private static String sortColumn(String sortBy) {
+        if ("Date".equals(sortBy)) {
+            return "createdAt";
+        }
+        return "Relevance".equals(sortBy) ? "relevance" : "name";
+    }
+
+    private AsyncEntityDAO async() {
+        if (asyncDAO == null) {
+            asyncDAO = backgroundExecutor == null ? new AsyncEntityDAO(entityDAO) : new AsyncEntityDAO(entityDAO, backgroundExecutor);
+        }
+        return asyncDAO;
+    }
 
-        int totalItems = entityDAO.getCount(searchTerm, filterBy);
-        int pageCount = (int) Math.ceil((double) totalItems / PAGE_SIZE);
-        if (pageCount == 0) {
-            pageCount = 1;
+    private IncrementalSearch search() {
+        if (search == null) {
+            search = new IncrementalSearch(async(), PAGE_SIZE, uiExecutor, this::showSearchResult);
         }
+        return search;
+    }
 
-        pagination.setPageCount(pageCount);
+    private KeysetPaginator<EntitySummary> paginator() {
+        if (paginator == null) {
+            paginator = KeysetPaginator.summaries(entityDAO, PAGE_SIZE);
+            paginator.setEstimateLimit(COUNT_ESTIMATE_LIMIT);
+        }
+        return paginator;
+    }
 
-        entityList.setAll(entityDAO.search(searchTerm, sortBy, sortAsc, filterBy, currentPage, PAGE_SIZE));
-        entityDetailsVBox.setVisible(false);
+    private KeysetPaginator<EntitySummary> blockPaginator() {
+        if (blockPaginator == null) {
+            blockPaginator = KeysetPaginator.summaries(entityDAO, VirtualEntityList.BLOCK_SIZE);
+        }
+        return blockPaginator;
     }
 
-    private void showEntityDetails(Entity entity) {
-        if (entity != null) {
-            entityDetailsVBox.setVisible(true);
-            nameLabel.setText(entity.getName());
-            descriptionLabel.setText(entity.getDescription());
-            createdAtLabel.setText(entity.getCreatedAt() != null ? entity.getCreatedAt().format(formatter) : "N/A");
-            updatedAtLabel.setText(entity.getUpdatedAt() != null ? entity.getUpdatedAt().format(formatter) : "N/A");
-        } else {
+    /** Forgets cached counts and page boundaries after the data has changed. */
+    private void invalidatePaginators() {
+        paginator().invalidate();
+        blockPaginator().invalidate();
+    }
+
+    /**
+     * The list only holds summaries: the name is shown at once and the rest of the row is loaded in the
+     * background, unless another row has been selected by the time it arrives.
+     */
+    private void showEntityDetails(EntitySummary summary) {
+        if (summary == null) {
             entityDetailsVBox.setVisible(false);
+            return;
         }
+        entityDetailsVBox.setVisible(true);
+        nameLabel.setText(summary.getName());
+        descriptionLabel.setText("");
+        createdAtLabel.setText("");
+        updatedAtLabel.setText("");
+        async().latest(DETAILS_CHANNEL, dao -> dao.get(summary.getId())).whenCompleteAsync((stored, error) -> {
+            if (entityListView.getSelectionModel().getSelectedItem() != summary) {
+                return;
+            }
+            if (error != null) {
+                if (!(AsyncEntityDAO.cause(error) instanceof CancellationException)) {
+                    LOG.log(Level.WARNING, "Failed to load entity", AsyncEntityDAO.cause(error));
+                }
+                return;
+            }
+            stored.ifPresent(entity -> {
+                nameLabel.setText(entity.getName());
+                descriptionLabel.setText(entity.getDescription());
+                createdAtLabel.setText(entity.getCreatedAt() != null ? entity.getCreatedAt().format(formatter) : "N/A");
+                updatedAtLabel.setText(entity.getUpdatedAt() != null ? entity.getUpdatedAt().format(formatter) : "N/A");
+            });
+        }, uiExecutor);
     }
 
     @FXML
     private void handleSearch() {
-        pagination.setCurrentPageIndex(0);
-        updateView();
+        search().searchNow(criteria());
     }
 
     @FXML
@@ -128,26 +392,41 @@ public class MainController {
 
     @FXML
     private void handleEditEntity() {
-        Entity selectedEntity = entityListView.getSelectionModel().getSelectedItem();
+        EntitySummary selectedEntity = entityListView.getSelectionModel().getSelectedItem();
         if (selectedEntity != null) {
-            showEditDialog(selectedEntity);
+            // The list only has the summary; edit the stored row.
+            async().get(selectedEntity.getId()).whenCompleteAsync((stored, error) -> {
+                if (stored != null && stored.isPresent()) {
+                    showEditDialog(stored.get());
+                } else {
+                    // Deleted (or unreadable) since the list was loaded.
+                    invalidatePaginators();
+                    updateView();
+                }
+            }, uiExecutor);
         }
     }
 
     @FXML
     public void handleDeleteEntity() {
-        Entity selectedEntity = entityListView.getSelectionModel().getSelectedItem();
+        EntitySummary selectedEntity = entityListView.getSelectionModel().getSelectedItem();
         if (selectedEntity != null) {
             Dialog<ButtonType> dialog = dialogSupplier.get();
             ((Alert) dialog).setContentText("Are you sure you want to want to delete the selected entity: " + selectedEntity.getName() + "?");
 
             Optional<ButtonType> result = dialog.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                entityDAO.delete(selectedEntity.getId());
-                if (entityList.size() == 1 && pagination.getCurrentPageIndex() > 0) {
-                    pagination.setCurrentPageIndex(pagination.getCurrentPageIndex() - 1);
-                }
-                updateView();
+                async().delete(selectedEntity.getId()).whenCompleteAsync((ignored, error) -> {
+                    if (error != null) {
+                        LOG.log(Level.WARNING, "Failed to delete entity", AsyncEntityDAO.cause(error));
+                    }
+                    invalidatePaginators();
+                    search().invalidate();
+                    if (entityList.size() == 1 && pagination.getCurrentPageIndex() > 0) {
+                        pagination.setCurrentPageIndex(pagination.getCurrentPageIndex() - 1);
+                    }
+                    updateView();
+                }, uiExecutor);
             }
         }
     }
@@ -174,28 +453,50 @@ public class MainController {
             Optional<ButtonType> result = dialog.showAndWait();
 
             if (result.isPresent() && result.get().getButtonData() == ButtonBar.ButtonData.OK_DONE) {
-                try {
-                    boolean isNewEntity = (entity == null);
+                boolean isNewEntity = (entity == null);
+                Entity edited = controller.getEntity();
+                String searchTerm = searchField.getText();
+                String filterBy = filterComboBox.getValue();
+                async().submit(dao -> {
                     if (isNewEntity) {
-                        entityDAO.add(controller.getEntity());
-                    } else {
-                        entityDAO.update(controller.getEntity());
+                        dao.add(edited);
+                        return dao.getCount(searchTerm, filterBy);
                     }
-                    updateView();
-                    if (isNewEntity) {
-                        int totalItems = entityDAO.getCount(searchField.getText(), filterComboBox.getValue());
-                        int lastPage = (int) Math.ceil((double) totalItems / PAGE_SIZE) - 1;
-                        if (lastPage < 0) {
-                            lastPage = 0;
+                    dao.update(edited);
+                    return null;
+                }).whenCompleteAsync((totalItems, error) -> {
+                    if (error != null) {
+                        Throwable cause = AsyncEntityDAO.cause(error);
+                        if (cause instanceof EntityConflictException) {
+                            // Someone else saved first: show the stored row rather than overwrite it.
+                            Alert alert = new Alert(Alert.AlertType.WARNING);
+                            alert.setTitle("Edit Conflict");
+                            alert.setContentText(cause.getMessage() + " Your changes were not saved.");
+                            alert.showAndWait();
+                            invalidatePaginators();
+                            search().invalidate();
+                            updateView();
+                            return;
+                        }
+                        if (!(cause instanceof ValidationException)) {
+                            LOG.log(Level.WARNING, "Failed to save entity", cause);
                         }
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle(cause instanceof ValidationException ? "Validation Error" : "Error");
+                        alert.setContentText(cause.getMessage());
+                        alert.showAndWait();
+                        return;
+                    }
+                    invalidatePaginators();
+                    search().invalidate();
+                    if (isNewEntity && !scrollMode()) {
+                        // Jump to the last page, where the new entity is most likely to be.
+                        int lastPage = Math.max(0, (int) Math.ceil((double) totalItems / PAGE_SIZE) - 1);
+                        pagination.setPageCount(lastPage + 1);
                         pagination.setCurrentPageIndex(lastPage);
                     }
-                } catch (ValidationException e) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Validation Error");
-                    alert.setContentText(e.getMessage());
-                    alert.showAndWait();
-                }
+                    updateView();
+                }, uiExecutor);
             }
 
         } catch (IOException e) {
@@ -0,0 +1,165 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.dao.AsyncEntityDAO;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.EntitySummary;
+import javafx.collections.ObservableListBase;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Every row matching some criteria, for a ListView that scrolls instead of paging. Rows are loaded in
+ * blocks of {@link #BLOCK_SIZE} when a cell asks for one ({@link #get} returns {@code null} until it
+ * arrives), the next block is prefetched, and only the {@link #MAX_BLOCKS} latest blocks are kept.
+ * Read-only; UI thread only.
+ */
+class VirtualEntityList extends ObservableListBase<EntitySummary> {
+    static final int BLOCK_SIZE = 100;
+    static final int MAX_BLOCKS = 8;
+
+    private static final Logger LOG = Logger.getLogger(VirtualEntityList.class.getName());
+
+    private final AsyncEntityDAO async;
+    private final KeysetPaginator<EntitySummary> paginator;
+    private final SearchCriteria criteria;
+    private final Executor uiExecutor;
+    private final int total;
+    private final Map<Integer, List<EntitySummary>> blocks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<EntitySummary>> eldest) {
+            return size() > MAX_BLOCKS;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    // Read by block loads to skip blocks that were scrolled past before their turn came.
+    private volatile int currentBlock;
+    private volatile boolean disposed;
+    private int previousBlock;
+    private boolean forward = true;
+
+    /**
+     * @param paginator  loads pages of {@link #BLOCK_SIZE} rows
+     * @param firstBlock the first page of {@code paginator} for {@code criteria}, with its total
+     */
+    VirtualEntityList(AsyncEntityDAO async, KeysetPaginator<EntitySummary> paginator, SearchCriteria criteria,
+                      Page<EntitySummary> firstBlock, Executor uiExecutor) {
+        this.async = async;
+        this.paginator = paginator;
+        this.criteria = criteria;
+        this.uiExecutor = uiExecutor;
+        this.total = firstBlock.getTotal();
+        blocks.put(0, firstBlock.getItems());
+    }
+
+    SearchCriteria getCriteria() {
+        return criteria;
+    }
+
+    /** Stops applying block loads, e.g. once the list has been replaced by one for newer criteria. */
+    void dispose() {
+        disposed = true;
+    }
+
+    @Override
+    public int size() {
+        return total;
+    }
+
+    /** The row at {@code index}, or {@code null} while its block is loading. */
+    @Override
+    public EntitySummary get(int index) {
+        Objects.checkIndex(index, total);
+        int block = index / BLOCK_SIZE;
+        if (block != currentBlock) {
+            // While the viewport straddles two blocks each layout pass reads both; that isn't a change of direction.
+            if (block != previousBlock) {
+                forward = block > currentBlock;
+            }
+            previousBlock = currentBlock;
+            currentBlock = block;
+        }
+        List<EntitySummary> items = blocks.get(block);
+        if (items == null) {
+            load(block);
+        }
+        prefetch(forward ? block + 1 : block - 1);
+        if (items == null) {
+            return null;
+        }
+        int offset = index - block * BLOCK_SIZE;
+        // The table may have shrunk since it was counted.
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<EntitySummary>> entry : blocks.entrySet()) {
+            int offset = entry.getValue().indexOf(o);
+            if (offset >= 0) {
+                return entry.getKey() * BLOCK_SIZE + offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /** Whether the block holding {@code index} is in memory. */
+    boolean isLoaded(int index) {
+        return blocks.containsKey(index / BLOCK_SIZE);
+    }
+
+    private void prefetch(int block) {
+        if (block >= 0 && block * BLOCK_SIZE < total && !blocks.containsKey(block)) {
+            load(block);
+        }
+    }
+
+    private void load(int block) {
+        if (!loading.add(block)) {
+            return;
+        }
+        async.submit(dao -> {
+            // Scrolling fast queues more blocks than are ever looked at; skip the ones left behind.
+            if (disposed || Math.abs(block - currentBlock) > 2) {
+                return null;
+            }
+            return paginator.load(criteria, block, total);
+        }).whenCompleteAsync((items, error) -> {
+            loading.remove(block);
+            if (disposed) {
+                return;
+            }
+            if (error != null) {
+                LOG.log(Level.WARNING, "Failed to load rows " + block * BLOCK_SIZE + " onwards", AsyncEntityDAO.cause(error));
+                return;
+            }
+            if (items == null) {
+                return;
+            }
+            blocks.put(block, items);
+            beginChange();
+            for (int i = block * BLOCK_SIZE; i < Math.min(total, (block + 1) * BLOCK_SIZE); i++) {
+                nextUpdate(i);
+            }
+            endChange();
+        }, uiExecutor);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link EntityDAO} calls off the caller's thread (virtual threads on Java 21+, else a small daemon
+ * pool) and returns {@link CompletableFuture}s. {@link #latest} cancels the previous request on the same
+ * channel, so only the newest result of e.g. paging is used.
+ */
+public class AsyncEntityDAO implements AutoCloseable {
+    private static final int PLATFORM_THREADS = 4;
+
+    /** A DAO call; exceptions it throws, checked or not, complete the future exceptionally. */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call(EntityDAO dao) throws Exception;
+    }
+
+    private final EntityDAO dao;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    public AsyncEntityDAO(EntityDAO dao) {
+        this.dao = dao;
+        this.ownedExecutor = newExecutor();
+        this.executor = ownedExecutor;
+    }
+
+    /** Uses the given executor, which the caller keeps ownership of. */
+    public AsyncEntityDAO(EntityDAO dao, Executor executor) {
+        this.dao = dao;
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    public <T> CompletableFuture<T> submit(Call<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call(dao);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /** Like {@link #submit}, but cancels whatever was last submitted on the same channel. */
+    public <T> CompletableFuture<T> latest(Object channel, Call<T> call) {
+        CompletableFuture<T> future = submit(call);
+        CompletableFuture<?> previous = inFlight.put(channel, future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        future.whenComplete((result, error) -> inFlight.remove(channel, future));
+        return future;
+    }
+
+    public CompletableFuture<Optional<Entity>> get(UUID id) {
+        return submit(dao -> dao.get(id));
+    }
+
+    public CompletableFuture<Void> add(Entity entity) {
+        return submit(dao -> {
+            dao.add(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> update(Entity entity) {
+        return submit(dao -> {
+            dao.update(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> delete(UUID id) {
+        return submit(dao -> {
+            dao.delete(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> getCount(String searchTerm, String filterBy) {
+        return submit(dao -> dao.getCount(searchTerm, filterBy));
+    }
+
+    public CompletableFuture<CountEstimate> estimateCount(SearchCriteria criteria, int limit) {
+        return submit(dao -> dao.estimateCount(criteria, limit));
+    }
+
+    public CompletableFuture<KeysetPage<Entity>> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return submit(dao -> dao.seek(criteria, cursor, forward, skip, pageSize));
+    }
+
+    public CompletableFuture<Page<Entity>> page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return submit(dao -> dao.page(criteria, pageIndex, pageSize, exactCount));
+    }
+
+    /** Stops the executor this instance created; an executor passed in by the caller is left alone. */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /** Unwraps the {@link CompletionException} a failed future reports, e.g. in {@code whenComplete}. */
+    public static Throwable cause(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static ExecutorService newExecutor() {
+        // Looked up reflectively so the code still compiles for Java 11.
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newFixedThreadPool(PLATFORM_THREADS, task -> {
+                Thread thread = new Thread(task, "entity-dao-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
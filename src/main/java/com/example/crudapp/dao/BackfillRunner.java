@@ -0,0 +1,70 @@
+package com.example.crudapp.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drives registered {@link IncrementalBackfill}s to completion. Every batch is a write on the pool's
+ * {@link WriteQueue}. The caller runs the first batch of each, which is all a small database needs;
+ * anything left is finished from a daemon thread with a short pause between batches.
+ */
+final class BackfillRunner implements Runnable {
+    private static final Logger LOG = Logger.getLogger(BackfillRunner.class.getName());
+    private static final long PAUSE_MILLIS = 20;
+
+    private final ConnectionPool pool;
+    private final List<IncrementalBackfill> pending;
+    private final int batchSize;
+
+    private BackfillRunner(ConnectionPool pool, List<IncrementalBackfill> pending, int batchSize) {
+        this.pool = pool;
+        this.pending = pending;
+        this.batchSize = batchSize;
+    }
+
+    /** Runs one batch of each backfill and returns those that aren't complete yet. */
+    static List<IncrementalBackfill> runFirstBatches(ConnectionPool pool, List<IncrementalBackfill> backfills,
+                                                     int batchSize) throws SQLException {
+        List<IncrementalBackfill> pending = new ArrayList<>();
+        for (IncrementalBackfill backfill : backfills) {
+            if (!pool.getWriteQueue().execute(conn -> backfill.runBatch(conn, batchSize))) {
+                pending.add(backfill);
+            }
+        }
+        return pending;
+    }
+
+    static void startInBackground(ConnectionPool pool, List<IncrementalBackfill> pending, int batchSize) {
+        if (!pending.isEmpty()) {
+            Thread thread = new Thread(new BackfillRunner(pool, pending, batchSize), "sqlite-backfill");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!pending.isEmpty()) {
+                pending.removeIf(this::runQuietly);
+                Thread.sleep(PAUSE_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Progress is persisted, so the next start picks up from here.
+            LOG.log(Level.WARNING, "Backfill stopped", e);
+        }
+    }
+
+    private boolean runQuietly(IncrementalBackfill backfill) {
+        try {
+            return pool.getWriteQueue().execute(conn -> backfill.runBatch(conn, batchSize));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Backfill " + backfill.getName() + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.crudapp.dao;
+
+/**
+ * A row that a batch operation skipped, identified by its position in the input collection.
+ */
+public class BatchFailure {
+    private final int index;
+    private final Object item;
+    private final String message;
+
+    public BatchFailure(int index, Object item, String message) {
+        this.index = index;
+        this.item = item;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /** The entity or id that failed. */
+    public Object getItem() {
+        return item;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + index + ": " + message;
+    }
+}
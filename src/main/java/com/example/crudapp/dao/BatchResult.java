@@ -0,0 +1,35 @@
+package com.example.crudapp.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link EntityDAO#addAll}, {@link EntityDAO#updateAll} or {@link EntityDAO#deleteAll}:
+ * how many rows were written and which were rejected, and why.
+ */
+public class BatchResult {
+    private final int succeeded;
+    private final List<BatchFailure> failures;
+
+    public BatchResult(int succeeded, List<BatchFailure> failures) {
+        this.succeeded = succeeded;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public List<BatchFailure> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult[succeeded=" + succeeded + ", failed=" + failures.size() + "]";
+    }
+}
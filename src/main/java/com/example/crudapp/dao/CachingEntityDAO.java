@@ -0,0 +1,283 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.cache.Cache;
+import com.example.crudapp.cache.CacheStats;
+import com.example.crudapp.cache.WeightedLruCache;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+import com.example.crudapp.model.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caching decorator for an {@link EntityDAO}: {@link #get} is read-through (misses included), and query
+ * results are cached by normalized criteria within a byte budget. Every write through it bumps a
+ * generation that retires all cached queries; writes that bypass it are not seen. Entities are mutable,
+ * so copies go in and out.
+ */
+public class CachingEntityDAO implements EntityDAO {
+    private static final long ENTITY_BYTES = 200;
+    private static final long SUMMARY_BYTES = 120;
+    private static final long LIST_BYTES = 64;
+    private static final long KEY_BYTES = 160;
+
+    private final EntityDAO delegate;
+    private final Cache<UUID, Optional<Entity>> entities;
+    private final Cache<QueryKey, Object> queries;
+    /**
+     * Bumped before and after every write. A read that overlapped a write sees a different value at the
+     * end than at the start and doesn't cache what it read; query results are keyed by it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachingEntityDAO(EntityDAO delegate, DatabaseConfig config) {
+        this(delegate, Cache.create(config.getEntityCachePolicy(), config.getEntityCacheSize()),
+                new WeightedLruCache<>(config.getQueryCacheMaxBytes(), CachingEntityDAO::estimateBytes));
+    }
+
+    CachingEntityDAO(EntityDAO delegate, Cache<UUID, Optional<Entity>> entities, Cache<QueryKey, Object> queries) {
+        this.delegate = delegate;
+        this.entities = entities;
+        this.queries = queries;
+    }
+
+    public CacheStats getEntityCacheStats() {
+        return entities.stats();
+    }
+
+    public CacheStats getQueryCacheStats() {
+        return queries.stats();
+    }
+
+    @Override
+    public Optional<Entity> get(UUID id) {
+        Optional<Entity> cached = entities.getIfPresent(id);
+        if (cached == null) {
+            long seen = generation.get();
+            cached = delegate.get(id).map(Entity::new);
+            if (generation.get() == seen) {
+                entities.put(id, cached);
+            }
+        }
+        return cached.map(Entity::new);
+    }
+
+    @Override
+    public void add(Entity entity) throws ValidationException {
+        generation.incrementAndGet();
+        try {
+            delegate.add(entity);
+        } finally {
+            written(entity.getId() == null ? List.of() : List.of(entity.getId()));
+        }
+    }
+
+    @Override
+    public void update(Entity entity) throws ValidationException {
+        generation.incrementAndGet();
+        try {
+            delegate.update(entity);
+        } finally {
+            written(List.of(entity.getId()));
+        }
+    }
+
+    @Override
+    public void delete(UUID id) {
+        generation.incrementAndGet();
+        try {
+            delegate.delete(id);
+        } finally {
+            written(List.of(id));
+        }
+    }
+
+    @Override
+    public BatchResult addAll(Collection<Entity> items) {
+        generation.incrementAndGet();
+        try {
+            return delegate.addAll(items);
+        } finally {
+            written(ids(items));
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Entity> items) {
+        generation.incrementAndGet();
+        try {
+            return delegate.updateAll(items);
+        } finally {
+            written(ids(items));
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        generation.incrementAndGet();
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            written(ids);
+        }
+    }
+
+    @Override
+    public List<Entity> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public void forEach(EntityVisitor visitor) {
+        delegate.forEach(visitor);
+    }
+
+    @Override
+    public List<Entity> search(String searchTerm, String sortBy, boolean sortAsc, String filterBy, int page, int pageSize) {
+        return search(searchTerm, filterBy, sortAsc, sortBy, page, pageSize, null, null);
+    }
+
+    @Override
+    public List<Entity> search(String searchTerm, String filterBy, boolean sortAsc, String sortBy, int page, int pageSize, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        SearchCriteria criteria = new SearchCriteria(searchTerm, filterBy, sortBy, sortAsc, dateFrom, dateTo);
+        return cached(QueryKey.search(criteria, page, pageSize, generation.get()),
+                () -> delegate.search(searchTerm, filterBy, sortAsc, sortBy, page, pageSize, dateFrom, dateTo),
+                CachingEntityDAO::copyAll);
+    }
+
+    @Override
+    public List<Entity> search(SearchCriteria criteria, int page, int pageSize) {
+        return cached(QueryKey.search(criteria, page, pageSize, generation.get()),
+                () -> delegate.search(criteria, page, pageSize),
+                CachingEntityDAO::copyAll);
+    }
+
+    @Override
+    public int getCount(String searchTerm, String filterBy) {
+        return getCount(searchTerm, filterBy, null, null);
+    }
+
+    @Override
+    public int getCount(String searchTerm, String filterBy, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        SearchCriteria criteria = new SearchCriteria(searchTerm, filterBy, null, true, dateFrom, dateTo);
+        return cached(QueryKey.count(criteria, generation.get()),
+                () -> delegate.getCount(searchTerm, filterBy, dateFrom, dateTo),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public CountEstimate estimateCount(SearchCriteria criteria, int limit) {
+        return cached(QueryKey.countEstimate(criteria, limit, generation.get()),
+                () -> delegate.estimateCount(criteria, limit),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public KeysetPage<Entity> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return cached(QueryKey.seek(criteria, cursor, forward, skip, pageSize, generation.get()),
+                () -> delegate.seek(criteria, cursor, forward, skip, pageSize),
+                page -> new KeysetPage<>(copyAll(page.getItems()), page.getFirst(), page.getLast(), page.hasMore()));
+    }
+
+    @Override
+    public KeysetPage<EntitySummary> seekSummaries(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return cached(QueryKey.seekSummaries(criteria, cursor, forward, skip, pageSize, generation.get()),
+                () -> delegate.seekSummaries(criteria, cursor, forward, skip, pageSize),
+                page -> new KeysetPage<>(new ArrayList<>(page.getItems()), page.getFirst(), page.getLast(), page.hasMore()));
+    }
+
+    @Override
+    public Page<Entity> page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return cached(QueryKey.page(criteria, pageIndex, pageSize, exactCount, generation.get()),
+                () -> delegate.page(criteria, pageIndex, pageSize, exactCount),
+                page -> new Page<>(copyAll(page.getItems()), page.getFirst(), page.getLast(), page.hasNext(),
+                        page.getTotal(), page.isTotalExact()));
+    }
+
+    @Override
+    public Page<EntitySummary> pageSummaries(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return cached(QueryKey.pageSummaries(criteria, pageIndex, pageSize, exactCount, generation.get()),
+                () -> delegate.pageSummaries(criteria, pageIndex, pageSize, exactCount),
+                page -> new Page<>(new ArrayList<>(page.getItems()), page.getFirst(), page.getLast(), page.hasNext(),
+                        page.getTotal(), page.isTotalExact()));
+    }
+
+    @Override
+    public Predicate<Entity> termMatcher(String searchTerm) {
+        return delegate.termMatcher(searchTerm);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(QueryKey key, Supplier<T> loader, UnaryOperator<T> copy) {
+        T result = (T) queries.getIfPresent(key);
+        if (result == null) {
+            result = copy.apply(loader.get());
+            // Stored under the generation seen before loading: if a write overlapped, nobody asks for it again.
+            queries.put(key, result);
+        }
+        return copy.apply(result);
+    }
+
+    private void written(Collection<UUID> ids) {
+        generation.incrementAndGet();
+        for (UUID id : ids) {
+            if (id != null) {
+                entities.invalidate(id);
+            }
+        }
+    }
+
+    private static List<UUID> ids(Collection<Entity> items) {
+        List<UUID> ids = new ArrayList<>(items.size());
+        for (Entity entity : items) {
+            ids.add(entity.getId());
+        }
+        return ids;
+    }
+
+    private static List<Entity> copyAll(List<Entity> items) {
+        List<Entity> copies = new ArrayList<>(items.size());
+        for (Entity entity : items) {
+            copies.add(new Entity(entity));
+        }
+        return copies;
+    }
+
+    /** Rough heap footprint of a cached query result: object headers, UUID, timestamps and UTF-16 text. */
+    static long estimateBytes(QueryKey key, Object value) {
+        String term = key.getCriteria().getSearchTerm();
+        long bytes = KEY_BYTES + (term == null ? 0 : 2L * term.length());
+        List<?> items;
+        if (value instanceof KeysetPage) {
+            items = ((KeysetPage<?>) value).getItems();
+            bytes += LIST_BYTES;
+        } else if (value instanceof List) {
+            items = (List<?>) value;
+        } else {
+            return bytes + 16;
+        }
+        bytes += LIST_BYTES;
+        for (Object item : items) {
+            if (item instanceof Entity) {
+                Entity entity = (Entity) item;
+                bytes += ENTITY_BYTES + 2L * length(entity.getName()) + 2L * length(entity.getDescription());
+            } else {
+                bytes += SUMMARY_BYTES + 2L * length(((EntitySummary) item).getName());
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+}
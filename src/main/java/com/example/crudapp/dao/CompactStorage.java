@@ -0,0 +1,192 @@
+package com.example.crudapp.dao;
+
+import org.sqlite.Function;
+import org.sqlite.SQLiteConfig.TransactionMode;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Online conversion of {@code entities} from the {@link StorageLayout#LEGACY} to the
+ * {@link StorageLayout#COMPACT} layout: the backfill copies rows into {@code entities_v2}, then
+ * {@link #cutOver} swaps it in. Later columns, such as {@link DerivedFlag}s, are carried over.
+ * <p>
+ * Rows changed meanwhile are only noted in {@code entities_v2_dirty} by plain SQL triggers, so writers
+ * without the {@link #registerFunctions conversion functions} (another process, the sqlite3 shell)
+ * keep working; each batch and the swap convert them.
+ */
+final class CompactStorage extends IncrementalBackfill {
+    static final String TABLE = "entities_v2";
+    private static final String DIRTY = "entities_v2_dirty";
+
+    private static final String COLUMNS = "rowid, id, name, description, createdAt, updatedAt";
+    /** id, name, description, createdAt, updatedAt. */
+    private static final int BASE_COLUMNS = 5;
+
+    CompactStorage() {
+        super(TABLE);
+    }
+
+    void install(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS entities_v2 ("
+                    + "id BLOB PRIMARY KEY NOT NULL, "
+                    + "name TEXT NOT NULL, "
+                    + "description TEXT, "
+                    + "createdAt INTEGER, "
+                    + "updatedAt INTEGER)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_entities_v2_name ON entities_v2 (name COLLATE NOCASE, id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_entities_v2_created_at ON entities_v2 (createdAt, id)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS " + DIRTY + " (row INTEGER PRIMARY KEY)");
+        }
+        createTriggers(conn);
+        register(conn);
+    }
+
+    /**
+     * Adds a column to {@code entities} and, while the copy is still running, to {@code entities_v2}.
+     *
+     * @param definition the column definition, e.g. {@code "version INTEGER NOT NULL DEFAULT 0"}
+     */
+    static void addColumn(Connection conn, String definition) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE entities ADD COLUMN " + definition);
+            if (tableExists(conn)) {
+                stmt.executeUpdate("ALTER TABLE " + TABLE + " ADD COLUMN " + definition);
+            }
+        }
+    }
+
+    private static void createTriggers(Connection conn) throws SQLException {
+        String note = "INSERT OR IGNORE INTO " + DIRTY + " (row) VALUES ";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entities_v2_insert AFTER INSERT ON entities BEGIN "
+                    + note + "(new.rowid); END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entities_v2_update AFTER UPDATE ON entities BEGIN "
+                    + note + "(old.rowid), (new.rowid); END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entities_v2_delete AFTER DELETE ON entities BEGIN "
+                    + note + "(old.rowid); END");
+        }
+    }
+
+    /** Columns of {@code entities_v2} beyond the ones this class created, which both tables have. */
+    private static List<String> extraColumns(Connection conn) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT name FROM pragma_table_info('" + TABLE + "') ORDER BY cid");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                columns.add(rs.getString(1));
+            }
+        }
+        return columns.subList(Math.min(BASE_COLUMNS, columns.size()), columns.size());
+    }
+
+    @Override
+    protected void process(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(copySql(conn, "rowid > ? AND rowid <= ?"))) {
+            pstmt.setLong(1, fromExclusive);
+            pstmt.setLong(2, toInclusive);
+            pstmt.executeUpdate();
+        }
+        copyDirtyRows(conn);
+    }
+
+    /** Re-copies the rows the triggers noted, dropping the ones that have been deleted. */
+    private static void copyDirtyRows(Connection conn) throws SQLException {
+        String dirty = "rowid IN (SELECT row FROM " + DIRTY + ")";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM entities_v2 WHERE " + dirty);
+            stmt.executeUpdate(copySql(conn, dirty));
+            stmt.executeUpdate("DELETE FROM " + DIRTY);
+        }
+    }
+
+    private static String copySql(Connection conn, String where) throws SQLException {
+        StringBuilder extra = new StringBuilder();
+        for (String column : extraColumns(conn)) {
+            extra.append(", ").append(column);
+        }
+        return "INSERT OR REPLACE INTO entities_v2 (" + COLUMNS + extra + ") "
+                + "SELECT rowid, uuid_blob(id), name, description, iso_micros(createdAt), iso_micros(updatedAt)" + extra + " "
+                + "FROM entities WHERE " + where;
+    }
+
+    /**
+     * Swaps in {@code entities_v2} if the copy is complete, in an exclusive transaction so no other
+     * connection or process writes in between. Must not run while this pool's backfills are running.
+     * Dropping the old table drops its triggers, so the full-text and counter triggers are recreated.
+     * The swap changes the schema version, which is how {@link EntityDAOImpl}s elsewhere notice it.
+     *
+     * @return whether the swap happened
+     */
+    boolean cutOver(Connection conn, FullTextIndex fullTextIndex, EntityCounts entityCounts) throws SQLException {
+        if (!tableExists(conn) || !isComplete(conn)) {
+            return false;
+        }
+        return Transactions.run(conn, TransactionMode.EXCLUSIVE, tx -> {
+            // Another process may have swapped while this one waited for the lock.
+            if (!tableExists(tx)) {
+                return false;
+            }
+            copyDirtyRows(tx);
+            try (Statement stmt = tx.createStatement()) {
+                stmt.executeUpdate("DROP TABLE entities");
+                stmt.executeUpdate("DROP TABLE " + DIRTY);
+                stmt.executeUpdate("ALTER TABLE entities_v2 RENAME TO entities");
+            }
+            fullTextIndex.createTriggers(tx);
+            entityCounts.createTriggers(tx);
+            return true;
+        });
+    }
+
+    /** Installs {@code uuid_blob(text)} and {@code iso_micros(text)}; values they can't parse pass through unchanged. */
+    static void registerFunctions(Connection conn) throws SQLException {
+        Function.create(conn, "uuid_blob", new Function() {
+            @Override
+            protected void xFunc() throws SQLException {
+                String text = value_text(0);
+                if (text == null) {
+                    result();
+                    return;
+                }
+                try {
+                    result(StorageLayout.toBytes(UUID.fromString(text)));
+                } catch (IllegalArgumentException e) {
+                    result(text);
+                }
+            }
+        });
+        Function.create(conn, "iso_micros", new Function() {
+            @Override
+            protected void xFunc() throws SQLException {
+                String text = value_text(0);
+                if (text == null) {
+                    result();
+                    return;
+                }
+                try {
+                    result(StorageLayout.toMicros(StorageLayout.readTimestamp(text)));
+                } catch (DateTimeParseException | ArithmeticException e) {
+                    result(text);
+                }
+            }
+        });
+    }
+
+    static boolean tableExists(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, TABLE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.metrics.DaoMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small bounded pool of long-lived SQLite connections. Physical connections are opened lazily, set up
+ * by the initializer once, and keep a {@link StatementCache}; callers get a proxy whose {@code close()}
+ * hands the connection back. DAO mutations and backfill batches go through its
+ * {@link #getWriteQueue() write queue}.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    private final DatabaseConfig config;
+    private final ConnectionInitializer initializer;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+    private final DaoMetrics metrics;
+    private WriteQueue writeQueue;
+    private volatile boolean closed;
+
+    public ConnectionPool(DatabaseConfig config, ConnectionInitializer initializer) {
+        this.config = config;
+        this.initializer = initializer;
+        this.permits = new Semaphore(config.getMaxPoolSize(), true);
+        this.metrics = new DaoMetrics(config.getSlowQueryThresholdMillis());
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + config.getAcquireTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        acquisitions.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+        metrics.recordConnectionAcquire(waited);
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            active.incrementAndGet();
+            return pooled.checkout();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /** Metrics for everything that runs on this pool's connections, shared with {@link InstrumentedEntityDAO}. */
+    public DaoMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** The single writer for this database, started on first use. */
+    public synchronized WriteQueue getWriteQueue() {
+        if (writeQueue == null) {
+            writeQueue = new WriteQueue(this);
+            if (closed) {
+                writeQueue.close();
+            }
+        }
+        return writeQueue;
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(config.getMaxPoolSize(), active.get(), idle.size(),
+                created.sum(), discarded.sum(), acquisitions.sum(), timeouts.sum(),
+                totalWaitNanos.sum(), maxWaitNanos.get(),
+                statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (writeQueue != null) {
+                // Commits what is queued, which still needs a connection.
+                writeQueue.close();
+            }
+        }
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.isUsable()) {
+                return pooled;
+            }
+            discarded.increment();
+            pooled.closePhysical();
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(config.getUrl());
+        try {
+            if (initializer != null) {
+                initializer.initialize(physical);
+            }
+        } catch (SQLException | RuntimeException e) {
+            physical.close();
+            throw e;
+        }
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        active.decrementAndGet();
+        try {
+            if (closed || !pooled.reset()) {
+                if (!closed) {
+                    discarded.increment();
+                }
+                pooled.closePhysical();
+            } else {
+                // LIFO keeps the most recently used (warmest) connection in play.
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * One physical connection and its bookkeeping. Each checkout hands out a fresh proxy so that a
+     * stale reference held by a caller cannot touch the connection after it has been returned.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private long lastReturned = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = config.getStatementCacheSize() > 0
+                    ? new StatementCache(physical, config.getStatementCacheSize(), statementHits, statementMisses, statementEvictions)
+                    : null;
+        }
+
+        Connection checkout() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handler(this));
+        }
+
+        boolean isUsable() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (System.currentTimeMillis() - lastReturned < config.getValidationIntervalMillis()) {
+                    return true;
+                }
+                return physical.isValid(config.getValidationTimeoutSeconds());
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                lastReturned = System.currentTimeMillis();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            if (statements != null) {
+                statements.closeAll();
+            }
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // Nothing useful to do with a connection we are throwing away.
+            }
+        }
+    }
+
+    private final class Handler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        Handler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "prepareStatement":
+                    if (returned) {
+                        break;
+                    }
+                    PreparedStatement statement = args.length == 1 && pooled.statements != null
+                            ? pooled.statements.prepare((String) args[0], (Connection) proxy)
+                            : (PreparedStatement) invokePhysical(method, args);
+                    return metrics.getSlowQueryLog().isEnabled()
+                            ? TimedStatement.wrap(statement, (String) args[0], pooled.physical, metrics.getSlowQueryLog())
+                            : statement;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(pooled.physical)) {
+                        return pooled.physical;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            return invokePhysical(method, args);
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.crudapp.dao;
+
+/**
+ * A row count from {@link EntityDAO#estimateCount}: either exact, or extrapolated from a limited number
+ * of matches.
+ */
+public class CountEstimate {
+    private final int count;
+    private final boolean exact;
+
+    public CountEstimate(int count, boolean exact) {
+        this.count = count;
+        this.exact = exact;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /** Whether {@link #getCount()} is the exact number of matching rows rather than an estimate. */
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public String toString() {
+        return exact ? Integer.toString(count) : "~" + count;
+    }
+}
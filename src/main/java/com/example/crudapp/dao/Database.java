@@ -1,45 +1,103 @@
 package com.example.crudapp.dao;
 
+import com.example.crudapp.cache.LruCache;
+import com.example.crudapp.metrics.DaoMetrics;
 import org.sqlite.Function;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 
 public class Database {
-    private static final String URL = "jdbc:sqlite:crudapp.db";
-
-    static {
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-            String sql = "CREATE TABLE IF NOT EXISTS entities (" 
-                    + "id TEXT PRIMARY KEY, "
-                    + "name TEXT NOT NULL, "
-                    + "description TEXT, "
-                    + "createdAt TEXT, "
-                    + "updatedAt TEXT)";
-            stmt.executeUpdate(sql);
+    /** Opened on first use, so tools and tests that only call {@link #createPool} never touch the app database. */
+    private static class Holder {
+        static final ConnectionPool POOL = createPool(DatabaseConfig.fromSystemProperties());
+
+        static {
+            POOL.getMetrics().register(POOL.getConfig().getUrl());
+        }
+    }
+
+    /**
+     * Creates a pool for the given database, applying the storage profile and registering custom
+     * functions on each physical connection, migrating the schema to the latest version, starting any
+     * pending backfills and switching to the compact storage layout once its backfill is done.
+     */
+    public static ConnectionPool createPool(DatabaseConfig config) {
+        LruCache<String, Pattern> patterns = new LruCache<>(config.getRegexCacheSize());
+        ConnectionPool pool = new ConnectionPool(config, conn -> {
+            config.getStorageProfile().apply(conn);
+            Function.create(conn, "REGEXP", new RegexFunction(patterns, config.getRegexMaxSteps()));
+            CompactStorage.registerFunctions(conn);
+        });
+        FullTextIndex fullTextIndex = new FullTextIndex();
+        CompactStorage compactStorage = new CompactStorage();
+        EntityCounts entityCounts = new EntityCounts();
+        try {
+            try (Connection conn = pool.getConnection()) {
+                new SchemaMigrator(migrations(fullTextIndex)).migrate(conn);
+            }
+            List<IncrementalBackfill> backfills = new ArrayList<>(List.of(fullTextIndex, compactStorage, entityCounts));
+            backfills.addAll(DerivedFlag.ALL);
+            List<IncrementalBackfill> pending =
+                    BackfillRunner.runFirstBatches(pool, backfills, config.getBackfillBatchSize());
+            try (Connection conn = pool.getConnection()) {
+                // Before the backfill thread starts, so none of this pool's batches runs across the swap.
+                compactStorage.cutOver(conn, fullTextIndex, entityCounts);
+            }
+            BackfillRunner.startInBackground(pool, pending, config.getBackfillBatchSize());
         } catch (SQLException e) {
+            pool.close();
             throw new RuntimeException("Failed to initialize database schema", e);
         }
+        return pool;
+    }
+
+    /**
+     * The schema history. Append new migrations at the end; never edit one that has shipped.
+     */
+    static List<Migration> migrations(FullTextIndex fullTextIndex) {
+        return List.of(
+                new Migration(1, "create entities table", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.executeUpdate("CREATE TABLE IF NOT EXISTS entities ("
+                                + "id TEXT PRIMARY KEY, "
+                                + "name TEXT NOT NULL, "
+                                + "description TEXT, "
+                                + "createdAt TEXT, "
+                                + "updatedAt TEXT)");
+                    }
+                }),
+                new Migration(2, "full-text index", fullTextIndex::install),
+                new Migration(3, "sort and date filter indexes", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_entities_name ON entities (name COLLATE NOCASE, id)");
+                        stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_entities_created_at ON entities (createdAt, id)");
+                    }
+                }),
+                new Migration(4, "compact id and timestamp storage", new CompactStorage()::install),
+                new Migration(5, "letters only flag", DerivedFlag.LETTERS_ONLY::install),
+                new Migration(6, "row counters", new EntityCounts()::install),
+                new Migration(7, "row version", conn -> CompactStorage.addColumn(conn, "version INTEGER NOT NULL DEFAULT 0"))
+        );
     }
 
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(URL);
-        Function.create(conn, "REGEXP", new Function() {
-            @Override
-            protected void xFunc() throws SQLException {
-                String expression = value_text(0);
-                String value = value_text(1);
-                if (value == null) {
-                    value = "";
-                }
-                Pattern pattern = Pattern.compile(expression);
-                result(pattern.matcher(value).find() ? 1 : 0);
-            }
-        });
-        return conn;
+        return Holder.POOL.getConnection();
+    }
+
+    public static ConnectionPool getPool() {
+        return Holder.POOL;
+    }
+
+    public static PoolStats getPoolStats() {
+        return Holder.POOL.getStats();
+    }
+
+    public static DaoMetrics getMetrics() {
+        return Holder.POOL.getMetrics();
     }
 }
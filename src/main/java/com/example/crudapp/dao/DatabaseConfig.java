@@ -0,0 +1,251 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.cache.EvictionPolicy;
+
+/**
+ * Connection settings for the SQLite backend. Defaults can be overridden with
+ * {@code crudapp.db.*} system properties, see {@link #fromSystemProperties()}.
+ */
+public class DatabaseConfig {
+    public static final String DEFAULT_URL = "jdbc:sqlite:crudapp.db";
+
+    private String url = DEFAULT_URL;
+    private int maxPoolSize = 4;
+    private long acquireTimeoutMillis = 5000;
+    private int validationTimeoutSeconds = 2;
+    private long validationIntervalMillis = 30000;
+    private int statementCacheSize = 32;
+    private boolean fullTextSearch = true;
+    private int backfillBatchSize = 5000;
+    private int batchChunkSize = 500;
+    private StorageProfile storageProfile = StorageProfile.durable();
+    private int entityCacheSize = 1000;
+    private EvictionPolicy entityCachePolicy = EvictionPolicy.TINY_LFU;
+    private long queryCacheMaxBytes = 8L * 1024 * 1024;
+    private int regexCacheSize = 256;
+    private long regexMaxSteps = 1_000_000;
+    private long slowQueryThresholdMillis = 250;
+    private long groupCommitWindowMillis = 2;
+    private int groupCommitMaxSize = 256;
+
+    public static DatabaseConfig fromSystemProperties() {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl(System.getProperty("crudapp.db.url", config.getUrl()));
+        config.setMaxPoolSize(Integer.getInteger("crudapp.db.pool.maxSize", config.getMaxPoolSize()));
+        config.setAcquireTimeoutMillis(Long.getLong("crudapp.db.pool.acquireTimeoutMillis", config.getAcquireTimeoutMillis()));
+        config.setValidationTimeoutSeconds(Integer.getInteger("crudapp.db.pool.validationTimeoutSeconds", config.getValidationTimeoutSeconds()));
+        config.setValidationIntervalMillis(Long.getLong("crudapp.db.pool.validationIntervalMillis", config.getValidationIntervalMillis()));
+        config.setStatementCacheSize(Integer.getInteger("crudapp.db.statementCacheSize", config.getStatementCacheSize()));
+        config.setFullTextSearch(Boolean.parseBoolean(System.getProperty("crudapp.db.fullTextSearch", String.valueOf(config.isFullTextSearch()))));
+        config.setBackfillBatchSize(Integer.getInteger("crudapp.db.backfillBatchSize", config.getBackfillBatchSize()));
+        config.setBatchChunkSize(Integer.getInteger("crudapp.db.batchChunkSize", config.getBatchChunkSize()));
+        config.setStorageProfile(StorageProfile.fromSystemProperties());
+        config.setEntityCacheSize(Integer.getInteger("crudapp.db.entityCache.size", config.getEntityCacheSize()));
+        config.setEntityCachePolicy(EvictionPolicy.parse(System.getProperty("crudapp.db.entityCache.policy", config.getEntityCachePolicy().name())));
+        config.setQueryCacheMaxBytes(Long.getLong("crudapp.db.queryCache.maxBytes", config.getQueryCacheMaxBytes()));
+        config.setRegexCacheSize(Integer.getInteger("crudapp.db.regex.cacheSize", config.getRegexCacheSize()));
+        config.setRegexMaxSteps(Long.getLong("crudapp.db.regex.maxSteps", config.getRegexMaxSteps()));
+        config.setSlowQueryThresholdMillis(Long.getLong("crudapp.db.slowQueryThresholdMillis", config.getSlowQueryThresholdMillis()));
+        config.setGroupCommitWindowMillis(Long.getLong("crudapp.db.groupCommit.windowMillis", config.getGroupCommitWindowMillis()));
+        config.setGroupCommitMaxSize(Integer.getInteger("crudapp.db.groupCommit.maxSize", config.getGroupCommitMaxSize()));
+        return config;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        if (maxPoolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Idle connections older than this are checked with {@link java.sql.Connection#isValid(int)}
+     * before being handed out again. Zero validates on every checkout.
+     */
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    /** Prepared statements kept per pooled connection. Zero disables statement caching. */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Whether searches use the FTS5 index (word-prefix matching with relevance ranking) once it has
+     * been built, instead of '%term%' LIKE scans.
+     */
+    public boolean isFullTextSearch() {
+        return fullTextSearch;
+    }
+
+    public void setFullTextSearch(boolean fullTextSearch) {
+        this.fullTextSearch = fullTextSearch;
+    }
+
+    /** Rows per transaction when backfilling derived data such as the full-text index. */
+    public int getBackfillBatchSize() {
+        return backfillBatchSize;
+    }
+
+    public void setBackfillBatchSize(int backfillBatchSize) {
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /** Rows sent to SQLite per JDBC batch by the DAO's addAll/updateAll/deleteAll. */
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    public void setBatchChunkSize(int batchChunkSize) {
+        if (batchChunkSize < 1) {
+            throw new IllegalArgumentException("Batch chunk size must be at least 1.");
+        }
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
+
+    public void setStorageProfile(StorageProfile storageProfile) {
+        this.storageProfile = storageProfile;
+    }
+
+    /** Entities (and known-missing ids) kept in memory by {@link CachingEntityDAO}; 0 disables the cache. */
+    public int getEntityCacheSize() {
+        return entityCacheSize;
+    }
+
+    public void setEntityCacheSize(int entityCacheSize) {
+        if (entityCacheSize < 0) {
+            throw new IllegalArgumentException("Entity cache size must not be negative.");
+        }
+        this.entityCacheSize = entityCacheSize;
+    }
+
+    public EvictionPolicy getEntityCachePolicy() {
+        return entityCachePolicy;
+    }
+
+    public void setEntityCachePolicy(EvictionPolicy entityCachePolicy) {
+        this.entityCachePolicy = entityCachePolicy;
+    }
+
+    /** Memory budget, in estimated bytes, for search/count results cached by {@link CachingEntityDAO}; 0 disables it. */
+    public long getQueryCacheMaxBytes() {
+        return queryCacheMaxBytes;
+    }
+
+    public void setQueryCacheMaxBytes(long queryCacheMaxBytes) {
+        if (queryCacheMaxBytes < 0) {
+            throw new IllegalArgumentException("Query cache budget must not be negative.");
+        }
+        this.queryCacheMaxBytes = queryCacheMaxBytes;
+    }
+
+    /** Compiled patterns kept for the {@code REGEXP} SQL function, shared by all connections of a pool. */
+    public int getRegexCacheSize() {
+        return regexCacheSize;
+    }
+
+    public void setRegexCacheSize(int regexCacheSize) {
+        if (regexCacheSize < 0) {
+            throw new IllegalArgumentException("Regex cache size must not be negative.");
+        }
+        this.regexCacheSize = regexCacheSize;
+    }
+
+    /**
+     * How many characters one {@code REGEXP} evaluation may read, counting re-reads while backtracking,
+     * before the statement is failed.
+     */
+    public long getRegexMaxSteps() {
+        return regexMaxSteps;
+    }
+
+    public void setRegexMaxSteps(long regexMaxSteps) {
+        if (regexMaxSteps < 1) {
+            throw new IllegalArgumentException("Regex step budget must be at least 1.");
+        }
+        this.regexMaxSteps = regexMaxSteps;
+    }
+
+    /**
+     * Statements running at least this long are logged with their query plan and kept in
+     * {@link ConnectionPool#getMetrics()}; 0 turns the slow query log off, and with it statement timing.
+     */
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        if (slowQueryThresholdMillis < 0) {
+            throw new IllegalArgumentException("Slow query threshold must not be negative.");
+        }
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    /**
+     * How long the {@link WriteQueue} keeps collecting writes into a transaction once others are
+     * queued behind the first; 0 commits only what is already queued.
+     */
+    public long getGroupCommitWindowMillis() {
+        return groupCommitWindowMillis;
+    }
+
+    public void setGroupCommitWindowMillis(long groupCommitWindowMillis) {
+        if (groupCommitWindowMillis < 0) {
+            throw new IllegalArgumentException("Group commit window must not be negative.");
+        }
+        this.groupCommitWindowMillis = groupCommitWindowMillis;
+    }
+
+    /** Most writes the {@link WriteQueue} commits in one transaction. */
+    public int getGroupCommitMaxSize() {
+        return groupCommitMaxSize;
+    }
+
+    public void setGroupCommitMaxSize(int groupCommitMaxSize) {
+        if (groupCommitMaxSize < 1) {
+            throw new IllegalArgumentException("Group commit size must be at least 1.");
+        }
+        this.groupCommitMaxSize = groupCommitMaxSize;
+    }
+}
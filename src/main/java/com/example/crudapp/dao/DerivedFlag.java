@@ -0,0 +1,131 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A 0/1 column of {@code entities}, computed on every insert and update, so that a filter on it reads a
+ * partial index. A new flag needs a constant here, an entry in {@link #ALL} and a migration calling
+ * {@link #install}.
+ */
+final class DerivedFlag extends IncrementalBackfill {
+    static final DerivedFlag LETTERS_ONLY = new DerivedFlag("letters_only", "Letters Only",
+            "name NOT GLOB '*[^A-Za-z]*'", entity -> isAsciiLetters(entity.getName()));
+
+    /** Every flag, in column order. */
+    static final List<DerivedFlag> ALL = List.of(LETTERS_ONLY);
+
+    private final String column;
+    private final String filterName;
+    private final String expression;
+    private final Predicate<Entity> classifier;
+
+    private DerivedFlag(String column, String filterName, String expression, Predicate<Entity> classifier) {
+        super(column);
+        this.column = column;
+        this.filterName = filterName;
+        this.expression = expression;
+        this.classifier = classifier;
+    }
+
+    /** {@code format} applied to each flag's column name, concatenated, for building column and value lists. */
+    static String columnList(String format) {
+        StringBuilder list = new StringBuilder();
+        for (DerivedFlag flag : ALL) {
+            list.append(String.format(format, flag.column));
+        }
+        return list.toString();
+    }
+
+    /** The flag behind a {@link SearchCriteria#getFilterBy()} value, or {@code null} if it names none. */
+    static DerivedFlag forFilter(String filterBy) {
+        for (DerivedFlag flag : ALL) {
+            if (flag.filterName.equals(filterBy)) {
+                return flag;
+            }
+        }
+        return null;
+    }
+
+    String getColumn() {
+        return column;
+    }
+
+    String getFilterName() {
+        return filterName;
+    }
+
+    /** The flag as an SQL expression over the row's other columns. */
+    String getExpression() {
+        return expression;
+    }
+
+    int compute(Entity entity) {
+        return classifier.test(entity) ? 1 : 0;
+    }
+
+    /**
+     * Adds the column and its partial sort indexes, and registers the backfill. If the compact storage
+     * copy is still running, {@code entities_v2} gets them too.
+     */
+    void install(Connection conn) throws SQLException {
+        addTo(conn, "entities");
+        if (CompactStorage.tableExists(conn)) {
+            addTo(conn, CompactStorage.TABLE);
+        }
+        register(conn);
+    }
+
+    private void addTo(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " INTEGER NOT NULL DEFAULT 0");
+            // Partial: only flagged rows are indexed, and only queries filtering on the flag use them.
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_" + column + "_name ON " + table
+                    + " (name COLLATE NOCASE, id) WHERE " + column + " = 1");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_" + column + "_created_at ON " + table
+                    + " (createdAt, id) WHERE " + column + " = 1");
+        }
+    }
+
+    @Override
+    protected void process(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT rowid, name, description FROM entities WHERE rowid > ? AND rowid <= ?");
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE entities SET " + column + " = ? WHERE rowid = ? AND " + column + " <> ?")) {
+            select.setLong(1, fromExclusive);
+            select.setLong(2, toInclusive);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    int value = compute(new Entity(null, rs.getString(2), rs.getString(3), null, null));
+                    update.setInt(1, value);
+                    update.setLong(2, rs.getLong(1));
+                    update.setInt(3, value);
+                    update.addBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    /** Matches {@code NOT GLOB '*[^A-Za-z]*'}: every character is an ASCII letter. */
+    private static boolean isAsciiLetters(String name) {
+        if (name == null) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
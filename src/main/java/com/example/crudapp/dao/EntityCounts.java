@@ -0,0 +1,159 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Row counts per {@code createdAt} day, in total and with {@link DerivedFlag#LETTERS_ONLY} set, kept by
+ * triggers so that counts without a term or regex are a range sum. The triggers skip rows the backfill
+ * has yet to reach, and compute days in plain SQL from either {@link StorageLayout}.
+ */
+final class EntityCounts extends IncrementalBackfill {
+    static final String TABLE = "entity_counts";
+
+    /**
+     * Bucket for rows whose {@code createdAt} is missing or unreadable: before any day a
+     * {@link java.time.LocalDate} can hold, so never inside a date range.
+     */
+    static final long NO_DAY = -1_000_000_000_000L;
+
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final String FLAG = DerivedFlag.LETTERS_ONLY.getColumn();
+
+    EntityCounts() {
+        super(TABLE);
+    }
+
+    /** Counts the rows matching criteria by querying {@code entities}, for the days the counters can't split. */
+    interface PartialDayCount {
+        int count(SearchCriteria criteria) throws SQLException;
+    }
+
+    void install(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS entity_counts ("
+                    + "day INTEGER PRIMARY KEY, "
+                    + "total INTEGER NOT NULL, "
+                    + FLAG + " INTEGER NOT NULL)");
+        }
+        createTriggers(conn);
+        register(conn);
+    }
+
+    /** The triggers maintaining the counts; also used when {@code entities} is replaced. */
+    void createTriggers(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entity_counts_insert AFTER INSERT ON entities "
+                    + "WHEN " + counted("new.rowid") + " BEGIN "
+                    + add("new", 1) + "; "
+                    + "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entity_counts_update AFTER UPDATE OF createdAt, " + FLAG
+                    + " ON entities WHEN " + counted("old.rowid") + " BEGIN "
+                    + add("old", -1) + "; "
+                    + add("new", 1) + "; "
+                    + "DELETE FROM entity_counts WHERE day = " + day("old.createdAt") + " AND total = 0; "
+                    + "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entity_counts_delete AFTER DELETE ON entities "
+                    + "WHEN " + counted("old.rowid") + " BEGIN "
+                    + add("old", -1) + "; "
+                    + "DELETE FROM entity_counts WHERE day = " + day("old.createdAt") + " AND total = 0; "
+                    + "END");
+        }
+    }
+
+    @Override
+    protected void process(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+        String sql = "INSERT INTO entity_counts (day, total, " + FLAG + ") "
+                + "SELECT " + day("createdAt") + ", COUNT(*), SUM(" + FLAG + ") "
+                + "FROM entities WHERE rowid > ? AND rowid <= ? GROUP BY 1 "
+                + "ON CONFLICT (day) DO UPDATE SET total = total + excluded.total, "
+                + FLAG + " = " + FLAG + " + excluded." + FLAG;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, fromExclusive);
+            pstmt.setLong(2, toInclusive);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * The number of rows matching {@code criteria}, or -1 if it has a search term, a regex or a flag
+     * that isn't in {@code indexedFlags}. Whole days of a date range are summed from the counters; a
+     * bound that falls inside a day leaves that day to {@code partialDay}, which counts it through the
+     * {@code createdAt} index.
+     */
+    int count(Connection conn, SearchCriteria criteria, Set<DerivedFlag> indexedFlags,
+              PartialDayCount partialDay) throws SQLException {
+        SearchCriteria normalized = criteria.normalized();
+        DerivedFlag flag = DerivedFlag.forFilter(normalized.getFilterBy());
+        if (normalized.getSearchTerm() != null || normalized.getRegex() != null
+                || flag != null && (flag != DerivedFlag.LETTERS_ONLY || !indexedFlags.contains(flag))) {
+            return -1;
+        }
+        LocalDateTime from = normalized.getDateFrom();
+        LocalDateTime to = normalized.getDateTo();
+        String filter = normalized.getFilterBy();
+        long firstDay = from == null ? NO_DAY : from.toLocalDate().toEpochDay();
+        long lastDay = to == null ? Long.MAX_VALUE : to.toLocalDate().toEpochDay();
+        if (from != null && to != null && lastDay - firstDay <= 1) {
+            // At most two days: the index range is as short as the counters'.
+            return partialDay.count(normalized);
+        }
+
+        int count = 0;
+        if (from != null && !from.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            LocalDateTime nextDay = from.toLocalDate().plusDays(1).atStartOfDay();
+            count += partialDay.count(new SearchCriteria(null, filter, null, true, from, nextDay.minusNanos(1)));
+            firstDay++;
+        } else if (from == null) {
+            // Unbounded below still leaves out rows without a date when there is an upper bound.
+            firstDay = to == null ? NO_DAY : NO_DAY + 1;
+        }
+        if (to != null && !to.toLocalTime().equals(LocalTime.MAX)) {
+            count += partialDay.count(new SearchCriteria(null, filter, null, true, to.toLocalDate().atStartOfDay(), to));
+            lastDay--;
+        }
+
+        String column = flag == null ? "total" : flag.getColumn();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT IFNULL(SUM(" + column + "), 0) FROM entity_counts WHERE day BETWEEN ? AND ?")) {
+            pstmt.setLong(1, firstDay);
+            pstmt.setLong(2, lastDay);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return count + (rs.next() ? rs.getInt(1) : 0);
+            }
+        }
+    }
+
+    /** Adds {@code delta} for the {@code row} ({@code new} or {@code old}) to its day. */
+    private static String add(String row, int delta) {
+        String flagDelta = delta > 0 ? row + "." + FLAG : "-" + row + "." + FLAG;
+        return "INSERT INTO entity_counts (day, total, " + FLAG + ") "
+                + "VALUES (" + day(row + ".createdAt") + ", " + delta + ", " + flagDelta + ") "
+                + "ON CONFLICT (day) DO UPDATE SET total = total + excluded.total, "
+                + FLAG + " = " + FLAG + " + excluded." + FLAG;
+    }
+
+    /** Whether the backfill has counted the row already, or it is newer than the backfill's high-water mark. */
+    private static String counted(String rowid) {
+        return "(SELECT " + rowid + " <= last_rowid OR " + rowid + " > high_water "
+                + "FROM backfill_progress WHERE name = '" + TABLE + "')";
+    }
+
+    /**
+     * Days since 1970-01-01 for a {@code createdAt} value: epoch microseconds (floored, so days before
+     * 1970 work too) or ISO text.
+     */
+    private static String day(String createdAt) {
+        return "IFNULL(CASE typeof(" + createdAt + ") "
+                + "WHEN 'integer' THEN (" + createdAt + " - ((" + createdAt + " % " + MICROS_PER_DAY + ") + "
+                + MICROS_PER_DAY + ") % " + MICROS_PER_DAY + ") / " + MICROS_PER_DAY + " "
+                + "WHEN 'text' THEN CAST(julianday(substr(" + createdAt + ", 1, 10)) - 2440587.5 AS INTEGER) "
+                + "END, " + NO_DAY + ")";
+    }
+}
@@ -1,21 +1,88 @@
 package com.example.crudapp.dao;
 
 import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
 import com.example.crudapp.model.ValidationException;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 public interface EntityDAO {
+    /**
+     * Stores a new entity, giving it a random id if it has none. {@code createdAt} defaults to now and
+     * {@code updatedAt} to {@code createdAt}; timestamps already set are kept.
+     */
     void add(Entity entity) throws ValidationException;
     void update(Entity entity) throws ValidationException;
     void delete(UUID id);
+
+    /**
+     * Batch variants of {@link #add}, {@link #update} and {@link #delete}. All rows are written in a
+     * single transaction; rows that fail validation or are rejected by the database are skipped and
+     * reported in the result instead of aborting the whole batch.
+     */
+    BatchResult addAll(Collection<Entity> entities);
+    BatchResult updateAll(Collection<Entity> entities);
+    BatchResult deleteAll(Collection<UUID> ids);
     Optional<Entity> get(UUID id);
     List<Entity> getAll();
+
+    /**
+     * Hands every row, in insertion order, to {@code visitor} as it is read, stopping early if the visitor
+     * returns false. Unlike {@link #getAll} this keeps only the current row in memory, however large the
+     * table. A pooled connection is held until it returns, so a slow visitor keeps it busy.
+     */
+    void forEach(EntityVisitor visitor);
     List<Entity> search(String searchTerm, String sortBy, boolean sortAsc, String filterBy, int page, int pageSize);
     List<Entity> search(String searchTerm, String filterBy, boolean sortAsc, String sortBy, int page, int pageSize, LocalDateTime dateFrom, LocalDateTime dateTo);
+
+    /**
+     * One page of rows matching {@code criteria}, including its {@link SearchCriteria#getRegex() regex}
+     * filter, which the other search overloads don't offer.
+     *
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     */
+    List<Entity> search(SearchCriteria criteria, int page, int pageSize);
     int getCount(String searchTerm, String filterBy);
     int getCount(String searchTerm, String filterBy, LocalDateTime dateFrom, LocalDateTime dateTo);
+
+    /**
+     * The number of rows matching {@code criteria}, without visiting more than about {@code limit} of
+     * them: up to {@code limit} matches the count is exact, beyond that it is extrapolated from how far
+     * into the table the matches reached, which assumes they are spread evenly over it. Use it to size
+     * pagers on broad searches and {@link #getCount} for the exact figure.
+     */
+    CountEstimate estimateCount(SearchCriteria criteria, int limit);
+
+    /**
+     * Keyset pagination: returns up to {@code pageSize} rows after {@code cursor} (or before it when
+     * {@code forward} is false), skipping {@code skip} rows first. A {@code null} cursor starts from the
+     * first row going forward and from the last row going backward. Rows are always in display order.
+     */
+    KeysetPage<Entity> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize);
+
+    /**
+     * The page at {@code pageIndex} (0-based) plus the total number of matching rows, from a single
+     * query. With {@code exactCount} false the total is not computed, which avoids visiting every
+     * matching row on huge result sets; {@link Page#getTotal()} is then only a lower bound.
+     */
+    Page<Entity> page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount);
+
+    /**
+     * {@link #seek} and {@link #page} for list views: the same rows and cursors, but only the columns
+     * an {@link EntitySummary} holds are read. Load the full row with {@link #get} when it is needed.
+     */
+    KeysetPage<EntitySummary> seekSummaries(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize);
+    Page<EntitySummary> pageSummaries(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount);
+
+    /**
+     * The search-term condition {@link #search} and {@link #page} currently apply, evaluated in memory,
+     * for narrowing rows the caller already holds without another query. Returns {@code null} if the
+     * term can't be matched outside the database.
+     */
+    Predicate<Entity> termMatcher(String searchTerm);
 }
@@ -1,40 +1,70 @@
 package com.example.crudapp.dao;
 
 import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntityConflictException;
+import com.example.crudapp.model.EntitySummary;
 import com.example.crudapp.model.ValidationException;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 public class EntityDAOImpl implements EntityDAO {
 
-    private final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String INSERT_SQL = "INSERT INTO entities (id, name, description, createdAt, updatedAt"
+            + DerivedFlag.columnList(", %s") + ") VALUES (?, ?, ?, ?, ?" + DerivedFlag.columnList(", ?") + ")";
+    // Compare-and-set on the version, so an update based on a stale read changes nothing.
+    private static final String UPDATE_SQL = "UPDATE entities SET name = ?, description = ?, updatedAt = ?"
+            + DerivedFlag.columnList(", %s = ?") + ", version = version + 1 WHERE id = ? AND version = ?";
+    private static final String DELETE_SQL = "DELETE FROM entities WHERE id = ?";
+    private static final String GET_SQL = "SELECT " + Projection.ENTITY.selectList() + " FROM entities WHERE id = ?";
+    private static final String GET_ALL_SQL = "SELECT " + Projection.ENTITY.selectList() + " FROM entities ORDER BY name COLLATE NOCASE ASC";
+    // Rowid order reads the table front to back without going through an index.
+    private static final String FOR_EACH_SQL = "SELECT " + Projection.ENTITY.selectList() + " FROM entities ORDER BY rowid";
+    private static final int FOR_EACH_FETCH_SIZE = 256;
+
+    private final ConnectionPool pool;
+    private final FullTextIndex fullTextIndex = new FullTextIndex();
+    private volatile boolean fullTextReady;
+    private final Set<DerivedFlag> indexedFlags = ConcurrentHashMap.newKeySet();
+    private final EntityCounts entityCounts = new EntityCounts();
+    private volatile boolean countsReady;
+    /** Re-read when the schema version moves, since another process may do the {@link CompactStorage} swap. */
+    private volatile KnownLayout layout;
+
+    public EntityDAOImpl() {
+        this(Database.getPool());
+    }
+
+    public EntityDAOImpl(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // Writes run on the pool's WriteQueue, which commits them in groups; these calls return once
+    // the group holding theirs has committed.
 
     @Override
     public void add(Entity entity) throws ValidationException {
         validateEntity(entity);
-        String sql = "INSERT INTO entities (id, name, description, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            if (entity.getId() == null) {
-                entity.setId(UUID.randomUUID());
-            }
-            LocalDateTime now = LocalDateTime.now();
-            entity.setCreatedAt(now);
-            entity.setUpdatedAt(now);
-
-            pstmt.setString(1, entity.getId().toString());
-            pstmt.setString(2, entity.getName());
-            pstmt.setString(3, entity.getDescription());
-            pstmt.setString(4, entity.getCreatedAt().format(formatter));
-            pstmt.setString(5, entity.getUpdatedAt().format(formatter));
-            pstmt.executeUpdate();
+        prepareForInsert(entity, now());
+        try {
+            pool.getWriteQueue().execute(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                    bindInsert(pstmt, layout(conn), entity);
+                    return pstmt.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error adding entity", e);
         }
@@ -43,17 +73,24 @@ public class EntityDAOImpl implements EntityDAO {
     @Override
     public void update(Entity entity) throws ValidationException {
         validateEntity(entity);
-        String sql = "UPDATE entities SET name = ?, description = ?, updatedAt = ? WHERE id = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            entity.setUpdatedAt(LocalDateTime.now());
-
-            pstmt.setString(1, entity.getName());
-            pstmt.setString(2, entity.getDescription());
-            pstmt.setString(3, entity.getUpdatedAt().format(formatter));
-            pstmt.setString(4, entity.getId().toString());
-            pstmt.executeUpdate();
+        LocalDateTime updatedAt = now();
+        try {
+            pool.getWriteQueue().execute(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+                    StorageLayout layout = layout(conn);
+                    bindUpdate(pstmt, layout, entity, updatedAt);
+                    if (pstmt.executeUpdate() == 0) {
+                        Optional<Entity> current = find(conn, layout, entity.getId());
+                        throw new EntityConflictException(current.isPresent()
+                                ? "Entity was changed by someone else since it was read." : "Entity no longer exists.",
+                                current.orElse(null));
+                    }
+                    return null;
+                }
+            });
+            // Only now: a rejected update leaves the caller's copy as it was read.
+            entity.setUpdatedAt(updatedAt);
+            entity.setVersion(entity.getVersion() + 1);
         } catch (SQLException e) {
             throw new RuntimeException("Error updating entity", e);
         }
@@ -61,41 +98,82 @@ public class EntityDAOImpl implements EntityDAO {
 
     @Override
     public void delete(UUID id) {
-        String sql = "DELETE FROM entities WHERE id = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id.toString());
-            pstmt.executeUpdate();
+        try {
+            pool.getWriteQueue().execute(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                    pstmt.setObject(1, layout(conn).id(id));
+                    return pstmt.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting entity", e);
         }
     }
 
     @Override
-    public Optional<Entity> get(UUID id) {
-        String sql = "SELECT * FROM entities WHERE id = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id.toString());
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapRowToEntity(rs));
+    public BatchResult addAll(Collection<Entity> entities) {
+        LocalDateTime now = now();
+        return executeBatch("adding", INSERT_SQL, entities, EntityDAOImpl::validateEntity, (pstmt, layout, entity) -> {
+            prepareForInsert(entity, now);
+            bindInsert(pstmt, layout, entity);
+        }, false);
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Entity> entities) {
+        LocalDateTime now = now();
+        BatchResult result = executeBatch("updating", UPDATE_SQL, entities, EntityDAOImpl::validateEntity,
+                (pstmt, layout, entity) -> bindUpdate(pstmt, layout, entity, now), true);
+        Set<Integer> failed = new HashSet<>();
+        for (BatchFailure failure : result.getFailures()) {
+            failed.add(failure.getIndex());
+        }
+        int index = 0;
+        for (Entity entity : entities) {
+            if (!failed.contains(index++)) {
+                entity.setUpdatedAt(now);
+                entity.setVersion(entity.getVersion() + 1);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        return executeBatch("deleting", DELETE_SQL, ids, id -> {
+            if (id == null) {
+                throw new ValidationException("Entity id is required.");
             }
+        }, (pstmt, layout, id) -> pstmt.setObject(1, layout.id(id)), false);
+    }
+
+    @Override
+    public Optional<Entity> get(UUID id) {
+        try (Connection conn = pool.getConnection()) {
+            return find(conn, layout(conn), id);
         } catch (SQLException e) {
             throw new RuntimeException("Error getting entity by ID", e);
         }
-        return Optional.empty();
+    }
+
+    private static Optional<Entity> find(Connection conn, StorageLayout layout, UUID id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(GET_SQL)) {
+            pstmt.setObject(1, layout.id(id));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Optional.of(Projection.ENTITY.map(rs, layout)) : Optional.empty();
+            }
+        }
     }
 
     @Override
     public List<Entity> getAll() {
         List<Entity> entities = new ArrayList<>();
-        String sql = "SELECT * FROM entities ORDER BY name COLLATE NOCASE ASC";
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = pool.getConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(GET_ALL_SQL)) {
+            StorageLayout layout = layout(conn);
             while (rs.next()) {
-                entities.add(mapRowToEntity(rs));
+                entities.add(Projection.ENTITY.map(rs, layout));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Error getting all entities", e);
@@ -103,6 +181,24 @@ public class EntityDAOImpl implements EntityDAO {
         return entities;
     }
 
+    @Override
+    public void forEach(EntityVisitor visitor) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FOR_EACH_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(FOR_EACH_FETCH_SIZE);
+            StorageLayout layout = layout(conn);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (!visitor.visit(Projection.ENTITY.map(rs, layout))) {
+                        return;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming entities", e);
+        }
+    }
+
     @Override
     public List<Entity> search(String searchTerm, String sortBy, boolean sortAsc, String filterBy, int page, int pageSize) {
         return search(searchTerm, filterBy, sortAsc, sortBy, page, pageSize, null, null);
@@ -110,60 +206,170 @@ public class EntityDAOImpl implements EntityDAO {
 
     @Override
     public List<Entity> search(String searchTerm, String filterBy, boolean sortAsc, String sortBy, int page, int pageSize, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return search(new SearchCriteria(searchTerm, filterBy, sortBy, sortAsc, dateFrom, dateTo), page, pageSize);
+    }
+
+    @Override
+    public List<Entity> search(SearchCriteria criteria, int page, int pageSize) {
         List<Entity> entities = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT * FROM entities WHERE 1=1 ");
-        List<Object> params = new ArrayList<>();
 
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            sql.append(" AND (name LIKE ? OR description LIKE ?)");
-            String searchPattern = "%" + searchTerm.trim() + "%";
-            params.add(searchPattern);
-            params.add(searchPattern);
+        try (Connection conn = pool.getConnection()) {
+            StorageLayout layout = layout(conn);
+            SearchQuery query = new SearchQuery(criteria, useFullText(conn), layout, indexedFlags(conn));
+            try (PreparedStatement pstmt = conn.prepareStatement(query.selectSql())) {
+                int index = query.bind(pstmt);
+                pstmt.setInt(index, pageSize);
+                pstmt.setInt(index + 1, page * pageSize);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        entities.add(Projection.ENTITY.map(rs, layout));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching entities", e);
         }
+        return entities;
+    }
 
-        if ("Letters Only".equals(filterBy)) {
-            sql.append(" AND name NOT GLOB '*[^A-Za-z]*'");
-        }
-        
-        if (dateFrom != null) {
-            sql.append(" AND createdAt >= ?");
-            params.add(dateFrom.format(formatter));
-        }
 
-        if (dateTo != null) {
-            sql.append(" AND createdAt <= ?");
-            params.add(dateTo.format(formatter));
-        }
+    @Override
+    public KeysetPage<Entity> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return seek(Projection.ENTITY, criteria, cursor, forward, skip, pageSize);
+    }
 
-        String sortDirection = sortAsc ? "ASC" : "DESC";
-        String orderBy = "name COLLATE NOCASE"; // Default sort
-        if (sortBy != null) {
-            if (sortBy.equalsIgnoreCase("createdAt")) {
-                orderBy = "createdAt";
-            } 
-        }
+    @Override
+    public KeysetPage<EntitySummary> seekSummaries(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return seek(Projection.SUMMARY, criteria, cursor, forward, skip, pageSize);
+    }
+
+    @Override
+    public Page<Entity> page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return page(Projection.ENTITY, criteria, pageIndex, pageSize, exactCount);
+    }
 
-        sql.append(" ORDER BY ").append(orderBy).append(" ").append(sortDirection).append(" LIMIT ? OFFSET ?");
-        params.add(pageSize);
-        params.add((page) * pageSize);
+    @Override
+    public Page<EntitySummary> pageSummaries(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return page(Projection.SUMMARY, criteria, pageIndex, pageSize, exactCount);
+    }
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            
-            for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
+    private <T> KeysetPage<T> seek(Projection<T> projection, SearchCriteria criteria, PageCursor cursor,
+                                   boolean forward, int skip, int pageSize) {
+        List<T> items = new ArrayList<>(pageSize);
+        PageCursor first = null;
+        PageCursor last = null;
+        boolean hasMore = false;
+
+        try (Connection conn = pool.getConnection()) {
+            StorageLayout layout = layout(conn);
+            SearchQuery query = new SearchQuery(criteria, useFullText(conn), layout, indexedFlags(conn));
+            int keyIndex = query.sortKeyIndex(projection);
+            try (PreparedStatement pstmt = conn.prepareStatement(query.seekSql(projection, cursor != null, forward))) {
+                int index = query.bind(pstmt);
+                if (cursor != null) {
+                    pstmt.setObject(index++, cursor.getSortKey());
+                    pstmt.setObject(index++, cursor.getId());
+                }
+                // One extra row tells us whether there is anything beyond this page.
+                pstmt.setInt(index, pageSize + 1);
+                pstmt.setInt(index + 1, skip);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (items.size() == pageSize) {
+                            hasMore = true;
+                            break;
+                        }
+                        items.add(projection.map(rs, layout));
+                        last = new PageCursor(rs.getObject(keyIndex), rs.getObject(1));
+                        if (first == null) {
+                            first = last;
+                        }
+                    }
+                }
             }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeking entities", e);
+        }
 
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                entities.add(mapRowToEntity(rs));
+        if (!forward) {
+            Collections.reverse(items);
+            return new KeysetPage<>(items, last, first, hasMore);
+        }
+        return new KeysetPage<>(items, first, last, hasMore);
+    }
+
+    private <T> Page<T> page(Projection<T> projection, SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        List<T> items = new ArrayList<>(pageSize);
+        PageCursor first = null;
+        PageCursor last = null;
+        boolean hasNext = false;
+        int offset = pageIndex * pageSize;
+        int total = 0;
+
+        try (Connection conn = pool.getConnection()) {
+            StorageLayout layout = layout(conn);
+            SearchQuery query = new SearchQuery(criteria, useFullText(conn), layout, indexedFlags(conn));
+            int keyIndex = query.sortKeyIndex(projection);
+            int totalIndex = query.totalCountIndex(projection);
+            // Counting the matches visits every one of them; the counters, when they apply, don't.
+            int counted = exactCount ? countFromCounters(conn, criteria) : -1;
+            boolean countInPage = exactCount && counted < 0;
+            if (counted >= 0) {
+                total = counted;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(query.pageSql(projection, countInPage))) {
+                int index = query.bindPage(pstmt, countInPage);
+                pstmt.setInt(index, pageSize + 1);
+                pstmt.setInt(index + 1, offset);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (countInPage && first == null) {
+                            total = rs.getInt(totalIndex);
+                        }
+                        if (items.size() == pageSize) {
+                            hasNext = true;
+                            break;
+                        }
+                        items.add(projection.map(rs, layout));
+                        last = new PageCursor(rs.getObject(keyIndex), rs.getObject(1));
+                        if (first == null) {
+                            first = last;
+                        }
+                    }
+                }
+            }
+            if (countInPage && items.isEmpty() && offset > 0) {
+                // Past the end: there is no row to carry the count.
+                total = count(conn, query);
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Error searching entities", e);
+            throw new RuntimeException("Error fetching page", e);
         }
-        return entities;
+
+        if (!exactCount) {
+            total = offset + items.size() + (hasNext ? 1 : 0);
+        }
+        return new Page<>(items, first, last, hasNext, total, exactCount);
     }
 
+    @Override
+    public Predicate<Entity> termMatcher(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return entity -> true;
+        }
+        boolean fullText;
+        try (Connection conn = pool.getConnection()) {
+            fullText = useFullText(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking the full-text index", e);
+        }
+        // Same choice as SearchQuery: terms without indexable words fall back to LIKE.
+        Predicate<Entity> matcher = fullText ? FullTextIndex.matcher(searchTerm) : null;
+        return matcher != null ? matcher : SearchQuery.likeMatcher(searchTerm);
+    }
 
     @Override
     public int getCount(String searchTerm, String filterBy) {
@@ -172,57 +378,268 @@ public class EntityDAOImpl implements EntityDAO {
 
     @Override
     public int getCount(String searchTerm, String filterBy, LocalDateTime dateFrom, LocalDateTime dateTo) {
-        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM entities WHERE 1=1 ");
-        List<Object> params = new ArrayList<>();
+        SearchCriteria criteria = new SearchCriteria(searchTerm, filterBy, null, true, dateFrom, dateTo);
 
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            sql.append(" AND (name LIKE ? OR description LIKE ?)");
-            String searchPattern = "%" + searchTerm.trim() + "%";
-            params.add(searchPattern);
-            params.add(searchPattern);
+        try (Connection conn = pool.getConnection()) {
+            int counted = countFromCounters(conn, criteria);
+            return counted >= 0 ? counted : count(conn, criteria);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting entities", e);
         }
+    }
 
-        if ("Letters Only".equals(filterBy)) {
-             sql.append(" AND name NOT GLOB '*[^A-Za-z]*'");
+    @Override
+    public CountEstimate estimateCount(SearchCriteria criteria, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive.");
         }
-        
-        if (dateFrom != null) {
-            sql.append(" AND createdAt >= ?");
-            params.add(dateFrom.format(formatter));
+        // Sorting doesn't change a count, and relevance order would join the ranked matches for nothing.
+        SearchCriteria unsorted = new SearchCriteria(criteria.getSearchTerm(), criteria.getFilterBy(), null, true,
+                criteria.getDateFrom(), criteria.getDateTo(), criteria.getRegex());
+        try (Connection conn = pool.getConnection()) {
+            int counted = countFromCounters(conn, unsorted);
+            if (counted >= 0) {
+                return new CountEstimate(counted, true);
+            }
+            SearchQuery query = new SearchQuery(unsorted, useFullText(conn), layout(conn), indexedFlags(conn));
+            int matches;
+            long lastRowid;
+            try (PreparedStatement pstmt = conn.prepareStatement(query.cappedCountSql())) {
+                pstmt.setInt(query.bind(pstmt), limit + 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    matches = rs.getInt(1);
+                    lastRowid = rs.getLong(2);
+                }
+            }
+            if (matches <= limit) {
+                return new CountEstimate(matches, true);
+            }
+            // The matches found so far came from the rows up to lastRowid; assume the rest are as dense.
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MIN(rowid), MAX(rowid) FROM entities")) {
+                rs.next();
+                long first = rs.getLong(1);
+                double coveredFraction = (double) (lastRowid - first + 1) / (rs.getLong(2) - first + 1);
+                long estimate = Math.round(matches / coveredFraction);
+                return new CountEstimate((int) Math.min(Integer.MAX_VALUE, Math.max(matches, estimate)), false);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error estimating the entity count", e);
         }
+    }
+
+    private int count(Connection conn, SearchCriteria criteria) throws SQLException {
+        return count(conn, new SearchQuery(criteria, useFullText(conn), layout(conn), indexedFlags(conn)));
+    }
 
-        if (dateTo != null) {
-            sql.append(" AND createdAt <= ?");
-            params.add(dateTo.format(formatter));
+    /**
+     * The count from {@link EntityCounts}, or -1 if the criteria need a search or the counters' backfill
+     * hasn't finished yet.
+     */
+    private int countFromCounters(Connection conn, SearchCriteria criteria) throws SQLException {
+        if (!countsReady) {
+            countsReady = entityCounts.isComplete(conn);
+            if (!countsReady) {
+                return -1;
+            }
         }
+        return entityCounts.count(conn, criteria, indexedFlags(conn), partial -> count(conn, partial));
+    }
+
+    private int count(Connection conn, SearchQuery query) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(query.countSql())) {
+            query.bind(pstmt);
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-             for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
             }
+        }
+    }
 
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
+    private boolean useFullText(Connection conn) throws SQLException {
+        if (!pool.getConfig().isFullTextSearch()) {
+            return false;
+        }
+        if (!fullTextReady) {
+            fullTextReady = fullTextIndex.isComplete(conn);
+        }
+        return fullTextReady;
+    }
+
+    private Set<DerivedFlag> indexedFlags(Connection conn) throws SQLException {
+        if (indexedFlags.size() < DerivedFlag.ALL.size()) {
+            for (DerivedFlag flag : DerivedFlag.ALL) {
+                if (!indexedFlags.contains(flag) && flag.isComplete(conn)) {
+                    indexedFlags.add(flag);
+                }
             }
+        }
+        return indexedFlags;
+    }
+
+    private StorageLayout layout(Connection conn) throws SQLException {
+        int schemaVersion = StorageLayout.schemaVersion(conn);
+        KnownLayout known = layout;
+        if (known == null || known.schemaVersion != schemaVersion) {
+            known = new KnownLayout(schemaVersion, StorageLayout.of(conn));
+            layout = known;
+        }
+        return known.layout;
+    }
+
+    private static final class KnownLayout {
+        final int schemaVersion;
+        final StorageLayout layout;
+
+        KnownLayout(int schemaVersion, StorageLayout layout) {
+            this.schemaVersion = schemaVersion;
+            this.layout = layout;
+        }
+    }
+
+    /** The current time at the precision both storage layouts keep. */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Validates and writes {@code items} as one write on the {@link WriteQueue}, so in one transaction,
+     * sending them to SQLite in JDBC batches of {@link DatabaseConfig#getBatchChunkSize()} rows. Invalid
+     * rows are skipped during the same pass; if SQLite rejects a batch, that chunk is rolled back to its
+     * savepoint and replayed row by row so only the offending rows are reported and everything else is
+     * still written.
+     */
+    private <T> BatchResult executeBatch(String action, String sql, Collection<T> items,
+                                         RowValidator<T> validator, RowBinder<T> binder, boolean requireMatch) {
+        try {
+            return pool.getWriteQueue().execute(conn -> writeBatch(conn, sql, items, validator, binder, requireMatch));
         } catch (SQLException e) {
-            throw new RuntimeException("Error counting entities", e);
+            throw new RuntimeException("Error " + action + " entities", e);
         }
-        return 0;
     }
 
-    private Entity mapRowToEntity(ResultSet rs) throws SQLException {
-        return new Entity(
-                UUID.fromString(rs.getString("id")),
-                rs.getString("name"),
-                rs.getString("description"),
-                LocalDateTime.parse(rs.getString("createdAt"), formatter),
-                LocalDateTime.parse(rs.getString("updatedAt"), formatter)
-        );
+    private <T> BatchResult writeBatch(Connection conn, String sql, Collection<T> items,
+                                       RowValidator<T> validator, RowBinder<T> binder, boolean requireMatch) throws SQLException {
+        int chunkSize = pool.getConfig().getBatchChunkSize();
+        List<BatchFailure> failures = new ArrayList<>();
+        List<PendingRow<T>> chunk = new ArrayList<>(Math.min(chunkSize, items.size()));
+        int succeeded = 0;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            StorageLayout layout = layout(conn);
+            int index = 0;
+            for (T item : items) {
+                try {
+                    validator.validate(item);
+                    chunk.add(new PendingRow<>(index, item));
+                } catch (ValidationException e) {
+                    failures.add(new BatchFailure(index, item, e.getMessage()));
+                }
+                index++;
+                if (chunk.size() == chunkSize) {
+                    succeeded += flushChunk(conn, pstmt, layout, chunk, binder, requireMatch, failures);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                succeeded += flushChunk(conn, pstmt, layout, chunk, binder, requireMatch, failures);
+            }
+        }
+
+        failures.sort(Comparator.comparingInt(BatchFailure::getIndex));
+        return new BatchResult(succeeded, failures);
     }
 
-    private void validateEntity(Entity entity) throws ValidationException {
+    private <T> int flushChunk(Connection conn, PreparedStatement pstmt, StorageLayout layout, List<PendingRow<T>> chunk,
+                               RowBinder<T> binder, boolean requireMatch, List<BatchFailure> failures) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        int[] counts;
+        try {
+            for (PendingRow<T> row : chunk) {
+                binder.bind(pstmt, layout, row.item);
+                pstmt.addBatch();
+            }
+            counts = pstmt.executeBatch();
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            conn.rollback(savepoint);
+            conn.releaseSavepoint(savepoint);
+            pstmt.clearBatch();
+            return replayRows(conn, pstmt, layout, chunk, binder, requireMatch, failures);
+        }
+
+        int written = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (requireMatch && counts[i] == 0) {
+                failures.add(new BatchFailure(chunk.get(i).index, chunk.get(i).item, "Entity not found or changed since it was read."));
+            } else {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private <T> int replayRows(Connection conn, PreparedStatement pstmt, StorageLayout layout, List<PendingRow<T>> chunk,
+                               RowBinder<T> binder, boolean requireMatch, List<BatchFailure> failures) throws SQLException {
+        int written = 0;
+        for (PendingRow<T> row : chunk) {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                binder.bind(pstmt, layout, row.item);
+                int count = pstmt.executeUpdate();
+                if (requireMatch && count == 0) {
+                    failures.add(new BatchFailure(row.index, row.item, "Entity not found or changed since it was read."));
+                } else {
+                    written++;
+                }
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                failures.add(new BatchFailure(row.index, row.item, e.getMessage()));
+            }
+            conn.releaseSavepoint(savepoint);
+        }
+        return written;
+    }
+
+    private void prepareForInsert(Entity entity, LocalDateTime now) {
+        if (entity.getId() == null) {
+            entity.setId(UUID.randomUUID());
+        }
+        // Timestamps the caller brings along, e.g. from an import, are kept, at the precision stored.
+        entity.setCreatedAt(entity.getCreatedAt() != null ? entity.getCreatedAt().truncatedTo(ChronoUnit.MICROS) : now);
+        entity.setUpdatedAt(entity.getUpdatedAt() != null
+                ? entity.getUpdatedAt().truncatedTo(ChronoUnit.MICROS) : entity.getCreatedAt());
+        entity.setVersion(0);
+    }
+
+    private void bindInsert(PreparedStatement pstmt, StorageLayout layout, Entity entity) throws SQLException {
+        pstmt.setObject(1, layout.id(entity.getId()));
+        pstmt.setString(2, entity.getName());
+        pstmt.setString(3, entity.getDescription());
+        pstmt.setObject(4, layout.timestamp(entity.getCreatedAt()));
+        pstmt.setObject(5, layout.timestamp(entity.getUpdatedAt()));
+        int index = 6;
+        for (DerivedFlag flag : DerivedFlag.ALL) {
+            pstmt.setInt(index++, flag.compute(entity));
+        }
+    }
+
+    private void bindUpdate(PreparedStatement pstmt, StorageLayout layout, Entity entity, LocalDateTime updatedAt)
+            throws SQLException {
+        pstmt.setString(1, entity.getName());
+        pstmt.setString(2, entity.getDescription());
+        pstmt.setObject(3, layout.timestamp(updatedAt));
+        int index = 4;
+        for (DerivedFlag flag : DerivedFlag.ALL) {
+            pstmt.setInt(index++, flag.compute(entity));
+        }
+        pstmt.setObject(index, layout.id(entity.getId()));
+        pstmt.setLong(index + 1, entity.getVersion());
+    }
+
+    /** The rules {@link #add}, {@link #update} and their batch variants enforce, for checking rows up front. */
+    public static void validateEntity(Entity entity) throws ValidationException {
          if (entity.getName() == null || entity.getName().trim().length() < 3 || entity.getName().trim().length() > 50) {
             throw new ValidationException("Entity name must be between 3 and 50 characters.");
         }
@@ -230,4 +647,24 @@ public class EntityDAOImpl implements EntityDAO {
             throw new ValidationException("Entity description cannot exceed 250 characters.");
         }
     }
+
+    @FunctionalInterface
+    private interface RowValidator<T> {
+        void validate(T item) throws ValidationException;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, StorageLayout layout, T item) throws SQLException;
+    }
+
+    private static final class PendingRow<T> {
+        private final int index;
+        private final T item;
+
+        PendingRow(int index, T item) {
+            this.index = index;
+            this.item = item;
+        }
+    }
 }
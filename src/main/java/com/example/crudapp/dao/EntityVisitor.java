@@ -0,0 +1,10 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+
+/** Receives the rows of {@link EntityDAO#forEach} one at a time. */
+@FunctionalInterface
+public interface EntityVisitor {
+    /** @return whether to continue with the next row */
+    boolean visit(Entity entity);
+}
@@ -0,0 +1,114 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * FTS5 index over entity names and descriptions, kept in sync by triggers; its rowids mirror
+ * {@code entities.rowid}. It is not external-content, so a trigger firing for a row the backfill has
+ * not reached yet is a no-op rather than a corrupting 'delete'.
+ */
+final class FullTextIndex extends IncrementalBackfill {
+    static final String TABLE = "entities_fts";
+
+    FullTextIndex() {
+        super(TABLE);
+    }
+
+    /** Creates the index table and the triggers maintaining it, then registers the backfill. */
+    void install(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE VIRTUAL TABLE IF NOT EXISTS entities_fts USING fts5("
+                    + "name, description, tokenize = 'unicode61 remove_diacritics 2')");
+        }
+        createTriggers(conn);
+        register(conn);
+    }
+
+    /** The triggers keeping the index in step with {@code entities}; also used when that table is replaced. */
+    void createTriggers(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entities_fts_insert AFTER INSERT ON entities BEGIN "
+                    + "INSERT OR REPLACE INTO entities_fts (rowid, name, description) VALUES (new.rowid, new.name, new.description); "
+                    + "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entities_fts_update AFTER UPDATE OF name, description ON entities BEGIN "
+                    + "UPDATE entities_fts SET name = new.name, description = new.description WHERE rowid = old.rowid; "
+                    + "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS entities_fts_delete AFTER DELETE ON entities BEGIN "
+                    + "DELETE FROM entities_fts WHERE rowid = old.rowid; "
+                    + "END");
+        }
+    }
+
+    @Override
+    protected void process(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO entities_fts (rowid, name, description) "
+                + "SELECT rowid, name, description FROM entities WHERE rowid > ? AND rowid <= ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, fromExclusive);
+            pstmt.setLong(2, toInclusive);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Turns free text into an FTS5 query that requires every word, each as a prefix, e.g.
+     * {@code app pi} becomes {@code "app"* "pi"*}. Returns {@code null} if the text has no indexable
+     * words, in which case callers fall back to a LIKE scan.
+     */
+    static String toMatchQuery(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add("\"" + token + "\"*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    /**
+     * In-memory counterpart of {@link #toMatchQuery}: accepts entities whose name or description has,
+     * for every word of the text, a word starting with it. Folds case and strips diacritics the way the
+     * {@code unicode61} tokenizer does for letters and digits. Returns {@code null} where
+     * {@link #toMatchQuery} does.
+     */
+    static Predicate<Entity> matcher(String text) {
+        List<String> prefixes = words(text);
+        if (prefixes.isEmpty()) {
+            return null;
+        }
+        return entity -> {
+            List<String> words = words(entity.getName());
+            words.addAll(words(entity.getDescription()));
+            for (String prefix : prefixes) {
+                if (words.stream().noneMatch(word -> word.startsWith(prefix))) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT);
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
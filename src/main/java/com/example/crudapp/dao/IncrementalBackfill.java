@@ -0,0 +1,115 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Brings derived data for the rows that existed before a schema change up to date, a batch of rowids
+ * at a time, so large databases are not locked for the whole rebuild.
+ * <p>
+ * {@link #register} records the current highest rowid as the high-water mark and must run in the same
+ * transaction that installs whatever keeps new rows up to date (usually triggers). Progress lives in
+ * {@code backfill_progress}, so an interrupted backfill resumes on the next start. Until
+ * {@link #isComplete} the derived data misses older rows, so readers keep using whatever it replaces
+ * (LIKE instead of the full-text index, a flag's expression instead of its column, and so on).
+ */
+abstract class IncrementalBackfill {
+
+    private final String name;
+
+    protected IncrementalBackfill(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void register(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS backfill_progress ("
+                    + "name TEXT PRIMARY KEY, "
+                    + "last_rowid INTEGER NOT NULL, "
+                    + "high_water INTEGER NOT NULL, "
+                    + "done INTEGER NOT NULL DEFAULT 0)");
+        }
+        String sql = "INSERT OR IGNORE INTO backfill_progress (name, last_rowid, high_water, done) "
+                + "SELECT ?, 0, IFNULL(MAX(rowid), 0), 0 FROM entities";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, name);
+            pstmt.executeUpdate();
+        }
+    }
+
+    boolean isComplete(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT done FROM backfill_progress WHERE name = ?")) {
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    /**
+     * Processes the next batch. Meant to run as one write on the {@link WriteQueue}, so the batch and
+     * its progress commit together.
+     *
+     * @return {@code true} once every row up to the high-water mark has been processed
+     */
+    boolean runBatch(Connection conn, int batchSize) throws SQLException {
+        long last;
+        long highWater;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT last_rowid, high_water, done FROM backfill_progress WHERE name = ?")) {
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Backfill " + name + " has not been registered");
+                }
+                if (rs.getInt(3) == 1) {
+                    return true;
+                }
+                last = rs.getLong(1);
+                highWater = rs.getLong(2);
+            }
+        }
+
+        long upTo = nextBound(conn, last, highWater, batchSize);
+        if (upTo > last) {
+            process(conn, last, upTo);
+        }
+        boolean done = upTo >= highWater;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE backfill_progress SET last_rowid = ?, done = ? WHERE name = ?")) {
+            pstmt.setLong(1, upTo);
+            pstmt.setInt(2, done ? 1 : 0);
+            pstmt.setString(3, name);
+            pstmt.executeUpdate();
+        }
+        return done;
+    }
+
+    /** Applies the backfill to the rows with {@code fromExclusive < rowid <= toInclusive}. */
+    protected abstract void process(Connection conn, long fromExclusive, long toInclusive) throws SQLException;
+
+    private static long nextBound(Connection conn, long last, long highWater, int batchSize) throws SQLException {
+        String sql = "SELECT MAX(rowid) FROM (SELECT rowid FROM entities WHERE rowid > ? AND rowid <= ? ORDER BY rowid LIMIT ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, last);
+            pstmt.setLong(2, highWater);
+            pstmt.setInt(3, batchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    long bound = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        return bound;
+                    }
+                }
+                return highWater;
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.metrics.DaoMetrics;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+import com.example.crudapp.model.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Timing decorator for an {@link EntityDAO}, recording every call in {@link DaoMetrics}; searches per
+ * query shape (e.g. {@code page[name,term]}), never per term. Place it under any
+ * {@link CachingEntityDAO} to measure the database rather than the cache.
+ */
+public class InstrumentedEntityDAO implements EntityDAO {
+    private final EntityDAO delegate;
+    private final DaoMetrics metrics;
+
+    public InstrumentedEntityDAO(EntityDAO delegate, DaoMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void add(Entity entity) throws ValidationException {
+        time("add", () -> {
+            delegate.add(entity);
+            return null;
+        }, ignored -> 1);
+    }
+
+    @Override
+    public void update(Entity entity) throws ValidationException {
+        time("update", () -> {
+            delegate.update(entity);
+            return null;
+        }, ignored -> 1);
+    }
+
+    @Override
+    public void delete(UUID id) {
+        time("delete", () -> {
+            delegate.delete(id);
+            return null;
+        }, ignored -> 1);
+    }
+
+    @Override
+    public BatchResult addAll(Collection<Entity> entities) {
+        return time("addAll", () -> delegate.addAll(entities), BatchResult::getSucceeded);
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Entity> entities) {
+        return time("updateAll", () -> delegate.updateAll(entities), BatchResult::getSucceeded);
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        return time("deleteAll", () -> delegate.deleteAll(ids), BatchResult::getSucceeded);
+    }
+
+    @Override
+    public Optional<Entity> get(UUID id) {
+        return time("get", () -> delegate.get(id), entity -> entity.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<Entity> getAll() {
+        return time("getAll", delegate::getAll, List::size);
+    }
+
+    @Override
+    public void forEach(EntityVisitor visitor) {
+        long[] rows = new long[1];
+        time("forEach", () -> {
+            delegate.forEach(entity -> {
+                rows[0]++;
+                return visitor.visit(entity);
+            });
+            return null;
+        }, ignored -> rows[0]);
+    }
+
+    @Override
+    public List<Entity> search(String searchTerm, String sortBy, boolean sortAsc, String filterBy, int page, int pageSize) {
+        SearchCriteria criteria = new SearchCriteria(searchTerm, filterBy, sortBy, sortAsc);
+        return time("search" + shape(criteria, ""), () -> delegate.search(searchTerm, sortBy, sortAsc, filterBy, page, pageSize), List::size);
+    }
+
+    @Override
+    public List<Entity> search(String searchTerm, String filterBy, boolean sortAsc, String sortBy, int page, int pageSize, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        SearchCriteria criteria = new SearchCriteria(searchTerm, filterBy, sortBy, sortAsc, dateFrom, dateTo);
+        return time("search" + shape(criteria, ""),
+                () -> delegate.search(searchTerm, filterBy, sortAsc, sortBy, page, pageSize, dateFrom, dateTo), List::size);
+    }
+
+    @Override
+    public List<Entity> search(SearchCriteria criteria, int page, int pageSize) {
+        return time("search" + shape(criteria, ""), () -> delegate.search(criteria, page, pageSize), List::size);
+    }
+
+    @Override
+    public int getCount(String searchTerm, String filterBy) {
+        return getCount(searchTerm, filterBy, null, null);
+    }
+
+    @Override
+    public int getCount(String searchTerm, String filterBy, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        SearchCriteria criteria = new SearchCriteria(searchTerm, filterBy, null, true, dateFrom, dateTo);
+        return time("getCount" + countShape(criteria),
+                () -> delegate.getCount(searchTerm, filterBy, dateFrom, dateTo), ignored -> 0);
+    }
+
+    @Override
+    public CountEstimate estimateCount(SearchCriteria criteria, int limit) {
+        return time("estimateCount" + countShape(criteria), () -> delegate.estimateCount(criteria, limit), ignored -> 0);
+    }
+
+    @Override
+    public KeysetPage<Entity> seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return time("seek" + shape(criteria, seekShape(cursor, forward)),
+                () -> delegate.seek(criteria, cursor, forward, skip, pageSize), page -> page.getItems().size());
+    }
+
+    @Override
+    public KeysetPage<EntitySummary> seekSummaries(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize) {
+        return time("seekSummaries" + shape(criteria, seekShape(cursor, forward)),
+                () -> delegate.seekSummaries(criteria, cursor, forward, skip, pageSize), page -> page.getItems().size());
+    }
+
+    @Override
+    public Page<Entity> page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return time("page" + shape(criteria, exactCount ? ",count" : ""),
+                () -> delegate.page(criteria, pageIndex, pageSize, exactCount), page -> page.getItems().size());
+    }
+
+    @Override
+    public Page<EntitySummary> pageSummaries(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount) {
+        return time("pageSummaries" + shape(criteria, exactCount ? ",count" : ""),
+                () -> delegate.pageSummaries(criteria, pageIndex, pageSize, exactCount), page -> page.getItems().size());
+    }
+
+    @Override
+    public Predicate<Entity> termMatcher(String searchTerm) {
+        return delegate.termMatcher(searchTerm);
+    }
+
+    private <T> T time(String operation, Supplier<T> call, ToLongFunction<T> rows) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            metrics.record(operation, System.nanoTime() - start, 0, true);
+            throw e;
+        }
+        metrics.record(operation, System.nanoTime() - start, rows.applyAsLong(result), false);
+        return result;
+    }
+
+    /** {@code [sort,conditions...,extra]}: what decides the SQL a search runs, without the values. */
+    private static String shape(SearchCriteria criteria, String extra) {
+        SearchCriteria normalized = criteria.normalized();
+        String sort = normalized.getSortBy() + (normalized.isSortAsc() ? "" : " desc");
+        return "[" + sort + conditions(normalized) + extra + "]";
+    }
+
+    private static String countShape(SearchCriteria criteria) {
+        String conditions = conditions(criteria.normalized());
+        return "[" + (conditions.isEmpty() ? "" : conditions.substring(1)) + "]";
+    }
+
+    private static String conditions(SearchCriteria normalized) {
+        StringBuilder conditions = new StringBuilder();
+        if (normalized.getSearchTerm() != null) {
+            conditions.append(",term");
+        }
+        if (normalized.getFilterBy() != null) {
+            conditions.append(",lettersOnly");
+        }
+        if (normalized.getDateFrom() != null || normalized.getDateTo() != null) {
+            conditions.append(",dates");
+        }
+        if (normalized.getRegex() != null) {
+            conditions.append(",regex");
+        }
+        return conditions.toString();
+    }
+
+    private static String seekShape(PageCursor cursor, boolean forward) {
+        return (cursor == null ? "" : ",cursor") + (forward ? "" : ",backward");
+    }
+}
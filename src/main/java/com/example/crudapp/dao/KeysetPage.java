@@ -0,0 +1,41 @@
+package com.example.crudapp.dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset search, in display order, with cursors for its first and last rows.
+ *
+ * @param <T> the row type: full entities, or summaries for list views
+ */
+public class KeysetPage<T> {
+    private final List<T> items;
+    private final PageCursor first;
+    private final PageCursor last;
+    private final boolean hasMore;
+
+    public KeysetPage(List<T> items, PageCursor first, PageCursor last, boolean hasMore) {
+        this.items = items;
+        this.first = first;
+        this.last = last;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** Cursor of the first row, or {@code null} when the page is empty. */
+    public PageCursor getFirst() {
+        return first;
+    }
+
+    /** Cursor of the last row, or {@code null} when the page is empty. */
+    public PageCursor getLast() {
+        return last;
+    }
+
+    /** Whether more rows exist beyond this page in the direction it was fetched. */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
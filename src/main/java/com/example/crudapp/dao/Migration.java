@@ -0,0 +1,38 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One step of the schema history. {@link SchemaMigrator} applies each step at most once, in version
+ * order, and records the version in {@code PRAGMA user_version}.
+ */
+final class Migration {
+
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final Step step;
+
+    Migration(int version, String description, Step step) {
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    void apply(Connection conn) throws SQLException {
+        step.apply(conn);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.crudapp.dao;
+
+import java.util.List;
+
+/**
+ * One page of search results together with the size of the whole result set, as returned by
+ * {@link EntityDAO#page}. The cursors let later pages be fetched with {@link EntityDAO#seek}.
+ */
+public class Page<T> extends KeysetPage<T> {
+    private final int total;
+    private final boolean totalExact;
+
+    public Page(List<T> items, PageCursor first, PageCursor last, boolean hasNext, int total, boolean totalExact) {
+        super(items, first, last, hasNext);
+        this.total = total;
+        this.totalExact = totalExact;
+    }
+
+    /**
+     * Number of matching rows. When {@link #isTotalExact()} is false this is only a lower bound: the rows
+     * up to the end of this page, plus one if there is a next page.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public boolean hasNext() {
+        return hasMore();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.crudapp.dao;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Position of a row in a keyset-paginated search: the stored value of the sort column plus the id
+ * tie-breaker. Obtained from {@link KeysetPage} and passed back to {@link EntityDAO#seek}; the values
+ * are kept exactly as read from the database so the seek compares like with like.
+ */
+public class PageCursor {
+    private final Object sortKey;
+    private final Object id;
+
+    PageCursor(Object sortKey, Object id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    Object getSortKey() {
+        return sortKey;
+    }
+
+    Object getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageCursor)) {
+            return false;
+        }
+        PageCursor that = (PageCursor) o;
+        // Compact ids are byte arrays.
+        return Objects.deepEquals(sortKey, that.sortKey) && Objects.deepEquals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(new Object[]{sortKey, id});
+    }
+}
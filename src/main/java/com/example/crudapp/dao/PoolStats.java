@@ -0,0 +1,110 @@
+package com.example.crudapp.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} usage.
+ */
+public class PoolStats {
+    private final int maxSize;
+    private final int active;
+    private final int idle;
+    private final long created;
+    private final long discarded;
+    private final long acquisitions;
+    private final long timeouts;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    PoolStats(int maxSize, int active, int idle, long created, long discarded,
+              long acquisitions, long timeouts, long totalWaitNanos, long maxWaitNanos,
+              long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.maxSize = maxSize;
+        this.active = active;
+        this.idle = idle;
+        this.created = created;
+        this.discarded = discarded;
+        this.acquisitions = acquisitions;
+        this.timeouts = timeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** Connections currently checked out. */
+    public int getActive() {
+        return active;
+    }
+
+    /** Physical connections parked in the pool, ready for reuse. */
+    public int getIdle() {
+        return idle;
+    }
+
+    /** Physical connections opened over the lifetime of the pool. */
+    public long getCreated() {
+        return created;
+    }
+
+    /** Physical connections closed because they failed validation or could not be reset. */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public double getAverageWaitMillis() {
+        return acquisitions == 0 ? 0 : (double) totalWaitNanos / acquisitions / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** Prepared statements served from a connection's statement cache. */
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    /** Prepared statements that had to be compiled by SQLite. */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    public double getStatementCacheHitRate() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats[active=%d, idle=%d, max=%d, created=%d, discarded=%d, acquisitions=%d, timeouts=%d, avgWait=%.3fms, maxWait=%.3fms, "
+                        + "stmtHits=%d, stmtMisses=%d, stmtEvictions=%d]",
+                active, idle, maxSize, created, discarded, acquisitions, timeouts,
+                getAverageWaitMillis(), maxWaitNanos / 1_000_000.0,
+                statementCacheHits, statementCacheMisses, statementCacheEvictions);
+    }
+}
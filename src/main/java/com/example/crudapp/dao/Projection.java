@@ -0,0 +1,66 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which columns of {@code entities} a query selects, and how a row of them becomes an object. Columns
+ * are selected in the listed order and read back by position, so mapping a row neither looks column
+ * labels up nor boxes values.
+ *
+ * @param <T> what a row becomes
+ */
+final class Projection<T> {
+    /** Every column, for {@link EntityDAO#get} and anything that edits or shows the whole row. */
+    static final Projection<Entity> ENTITY = new Projection<>(
+            (rs, layout) -> {
+                Entity entity = new Entity(layout.readId(rs, 1), rs.getString(2), rs.getString(3),
+                        layout.readTimestamp(rs, 4), layout.readTimestamp(rs, 5));
+                entity.setVersion(rs.getLong(6));
+                return entity;
+            },
+            "id", "name", "description", "createdAt", "updatedAt", "version");
+
+    /** What a list row shows. */
+    static final Projection<EntitySummary> SUMMARY = new Projection<>(
+            (rs, layout) -> new EntitySummary(layout.readId(rs, 1), rs.getString(2)),
+            "id", "name");
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs, StorageLayout layout) throws SQLException;
+    }
+
+    private final List<String> columns;
+    private final String selectList;
+    private final RowMapper<T> mapper;
+
+    private Projection(RowMapper<T> mapper, String... columns) {
+        this.columns = Arrays.asList(columns);
+        this.selectList = String.join(", ", columns);
+        this.mapper = mapper;
+    }
+
+    /** The columns as a SELECT list. */
+    String selectList() {
+        return selectList;
+    }
+
+    int width() {
+        return columns.size();
+    }
+
+    /** 1-based position of {@code column} in the select list, or 0 if it isn't selected. */
+    int indexOf(String column) {
+        return columns.indexOf(column) + 1;
+    }
+
+    T map(ResultSet rs, StorageLayout layout) throws SQLException {
+        return mapper.map(rs, layout);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.crudapp.dao;
+
+import java.util.Objects;
+
+/**
+ * Cache key for one read made by {@link CachingEntityDAO}: which call, the normalized criteria, the page
+ * being asked for, and the write generation the result belongs to. Results from older generations are
+ * never looked up again and simply age out of the cache.
+ */
+final class QueryKey {
+    enum Kind { SEARCH, COUNT, COUNT_ESTIMATE, SEEK, PAGE, PAGE_WITHOUT_COUNT, SUMMARY_SEEK, SUMMARY_PAGE, SUMMARY_PAGE_WITHOUT_COUNT }
+
+    private final Kind kind;
+    private final SearchCriteria criteria;
+    private final PageCursor cursor;
+    private final boolean forward;
+    private final int offset;
+    private final int limit;
+    private final long generation;
+
+    private QueryKey(Kind kind, SearchCriteria criteria, PageCursor cursor, boolean forward, int offset, int limit, long generation) {
+        this.kind = kind;
+        this.criteria = criteria.normalized();
+        this.cursor = cursor;
+        this.forward = forward;
+        this.offset = offset;
+        this.limit = limit;
+        this.generation = generation;
+    }
+
+    static QueryKey search(SearchCriteria criteria, int page, int pageSize, long generation) {
+        return new QueryKey(Kind.SEARCH, criteria, null, true, page, pageSize, generation);
+    }
+
+    static QueryKey count(SearchCriteria criteria, long generation) {
+        // Sorting doesn't change a count.
+        SearchCriteria unsorted = new SearchCriteria(criteria.getSearchTerm(), criteria.getFilterBy(), null, true,
+                criteria.getDateFrom(), criteria.getDateTo(), criteria.getRegex());
+        return new QueryKey(Kind.COUNT, unsorted, null, true, 0, 0, generation);
+    }
+
+    static QueryKey countEstimate(SearchCriteria criteria, int limit, long generation) {
+        SearchCriteria unsorted = new SearchCriteria(criteria.getSearchTerm(), criteria.getFilterBy(), null, true,
+                criteria.getDateFrom(), criteria.getDateTo(), criteria.getRegex());
+        return new QueryKey(Kind.COUNT_ESTIMATE, unsorted, null, true, 0, limit, generation);
+    }
+
+    static QueryKey seek(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize, long generation) {
+        return new QueryKey(Kind.SEEK, criteria, cursor, forward, skip, pageSize, generation);
+    }
+
+    static QueryKey page(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount, long generation) {
+        return new QueryKey(exactCount ? Kind.PAGE : Kind.PAGE_WITHOUT_COUNT, criteria, null, true, pageIndex, pageSize, generation);
+    }
+
+    static QueryKey seekSummaries(SearchCriteria criteria, PageCursor cursor, boolean forward, int skip, int pageSize, long generation) {
+        return new QueryKey(Kind.SUMMARY_SEEK, criteria, cursor, forward, skip, pageSize, generation);
+    }
+
+    static QueryKey pageSummaries(SearchCriteria criteria, int pageIndex, int pageSize, boolean exactCount, long generation) {
+        return new QueryKey(exactCount ? Kind.SUMMARY_PAGE : Kind.SUMMARY_PAGE_WITHOUT_COUNT, criteria, null, true, pageIndex, pageSize, generation);
+    }
+
+    SearchCriteria getCriteria() {
+        return criteria;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryKey)) {
+            return false;
+        }
+        QueryKey that = (QueryKey) o;
+        return kind == that.kind
+                && forward == that.forward
+                && offset == that.offset
+                && limit == that.limit
+                && generation == that.generation
+                && criteria.equals(that.criteria)
+                && Objects.equals(cursor, that.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, criteria, cursor, forward, offset, limit, generation);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and classifies SQLite's {@code EXPLAIN QUERY PLAN} output.
+ */
+final class QueryPlan {
+    private final List<String> steps;
+
+    private QueryPlan(List<String> steps) {
+        this.steps = steps;
+    }
+
+    /** Explains {@code sql}; parameters are left unbound, which does not change the chosen plan. */
+    static QueryPlan explain(Connection conn, String sql) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                steps.add(rs.getString("detail"));
+            }
+        }
+        return new QueryPlan(steps);
+    }
+
+    List<String> getSteps() {
+        return steps;
+    }
+
+    /** True if some step reads {@code table} front to back without any index. */
+    boolean hasFullScan(String table) {
+        for (String step : steps) {
+            if (step.equals("SCAN " + table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True if some step looks rows of {@code table} up through an index range or key. */
+    boolean hasIndexSearch(String table) {
+        for (String step : steps) {
+            if (step.startsWith("SEARCH " + table + " USING")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True if the result has to be sorted in a temporary B-tree rather than read in index order. */
+    boolean usesTempSort() {
+        for (String step : steps) {
+            if (step.startsWith("USE TEMP B-TREE FOR ORDER BY")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return String.join("\n", steps);
+    }
+}
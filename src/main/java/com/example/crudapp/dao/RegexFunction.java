@@ -0,0 +1,111 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.cache.Cache;
+import org.sqlite.Function;
+
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The {@code REGEXP} SQL function ({@code value REGEXP pattern}, true if the pattern occurs anywhere in
+ * the value). Compiled patterns are cached across the pool, and each evaluation may read at most
+ * {@code maxSteps} characters, so a catastrophically backtracking pattern fails the statement.
+ */
+final class RegexFunction extends Function {
+    private static final ThreadLocal<Evaluation> EVALUATION = ThreadLocal.withInitial(Evaluation::new);
+
+    private final Cache<String, Pattern> patterns;
+    private final long maxSteps;
+
+    /** Per-thread matcher state, reused across rows. */
+    private static final class Evaluation {
+        final BudgetedText text = new BudgetedText();
+        Matcher matcher;
+    }
+
+    /** The input as the matcher sees it, counting every character read. */
+    private static final class BudgetedText implements CharSequence {
+        private String value = "";
+        private long stepsLeft;
+
+        void reset(String value, long maxSteps) {
+            this.value = value;
+            this.stepsLeft = maxSteps;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--stepsLeft < 0) {
+                throw new BudgetExceeded();
+            }
+            return value.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return value.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static final class BudgetExceeded extends RuntimeException {
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    RegexFunction(Cache<String, Pattern> patterns, long maxSteps) {
+        this.patterns = patterns;
+        this.maxSteps = maxSteps;
+    }
+
+    @Override
+    protected void xFunc() throws SQLException {
+        String expression = value_text(0);
+        if (expression == null) {
+            result();
+            return;
+        }
+        String value = value_text(1);
+        result(matches(expression, value == null ? "" : value) ? 1 : 0);
+    }
+
+    boolean matches(String expression, String value) throws SQLException {
+        Evaluation evaluation = EVALUATION.get();
+        Matcher matcher = evaluation.matcher;
+        if (matcher == null || !matcher.pattern().pattern().equals(expression)) {
+            matcher = pattern(expression).matcher(evaluation.text);
+            evaluation.matcher = matcher;
+        }
+        evaluation.text.reset(value, maxSteps);
+        try {
+            return matcher.reset(evaluation.text).find();
+        } catch (BudgetExceeded e) {
+            throw new SQLException("REGEXP gave up on '" + expression + "' after " + maxSteps + " steps");
+        }
+    }
+
+    private Pattern pattern(String expression) throws SQLException {
+        Pattern pattern = patterns.getIfPresent(expression);
+        if (pattern == null) {
+            try {
+                pattern = Pattern.compile(expression);
+            } catch (PatternSyntaxException e) {
+                throw new SQLException("Invalid regular expression: " + e.getDescription(), e);
+            }
+            patterns.put(expression, pattern);
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Applies pending {@link Migration}s using SQLite's {@code PRAGMA user_version} as the schema version.
+ * Each migration runs in its own transaction together with the version bump, so a failure leaves the
+ * database at the last fully applied version.
+ */
+final class SchemaMigrator {
+    private static final Logger LOG = Logger.getLogger(SchemaMigrator.class.getName());
+
+    private final List<Migration> migrations;
+
+    SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() != i + 1) {
+                throw new IllegalArgumentException("Migration versions must be 1.." + sorted.size() + " without gaps");
+            }
+        }
+        this.migrations = sorted;
+    }
+
+    int getLatestVersion() {
+        return migrations.size();
+    }
+
+    /** Brings the schema up to the latest version and returns that version. */
+    int migrate(Connection conn) throws SQLException {
+        int current = currentVersion(conn);
+        if (current > getLatestVersion()) {
+            throw new SQLException("Database schema version " + current
+                    + " is newer than this application supports (" + getLatestVersion() + ")");
+        }
+        for (Migration migration : migrations.subList(current, migrations.size())) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                migration.apply(conn);
+                stmt.executeUpdate("PRAGMA user_version = " + migration.getVersion());
+                conn.commit();
+                LOG.info("Applied schema migration " + migration.getVersion() + ": " + migration.getDescription());
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw new SQLException("Schema migration " + migration.getVersion() + " ("
+                        + migration.getDescription() + ") failed", e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return getLatestVersion();
+    }
+
+    static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
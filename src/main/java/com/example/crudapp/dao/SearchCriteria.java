@@ -0,0 +1,116 @@
+package com.example.crudapp.dao;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Immutable filter and sort settings for a search, independent of which page is being fetched.
+ */
+public class SearchCriteria {
+    private final String searchTerm;
+    private final String filterBy;
+    private final String sortBy;
+    private final boolean sortAsc;
+    private final LocalDateTime dateFrom;
+    private final LocalDateTime dateTo;
+    private final String regex;
+
+    public SearchCriteria(String searchTerm, String filterBy, String sortBy, boolean sortAsc) {
+        this(searchTerm, filterBy, sortBy, sortAsc, null, null);
+    }
+
+    public SearchCriteria(String searchTerm, String filterBy, String sortBy, boolean sortAsc,
+                          LocalDateTime dateFrom, LocalDateTime dateTo) {
+        this(searchTerm, filterBy, sortBy, sortAsc, dateFrom, dateTo, null);
+    }
+
+    /**
+     * @param regex a {@link java.util.regex.Pattern} the name must contain a match for, or {@code null}
+     */
+    public SearchCriteria(String searchTerm, String filterBy, String sortBy, boolean sortAsc,
+                          LocalDateTime dateFrom, LocalDateTime dateTo, String regex) {
+        this.searchTerm = searchTerm;
+        this.filterBy = filterBy;
+        this.sortBy = sortBy;
+        this.sortAsc = sortAsc;
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.regex = regex;
+    }
+
+    public String getSearchTerm() {
+        return searchTerm;
+    }
+
+    public String getFilterBy() {
+        return filterBy;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isSortAsc() {
+        return sortAsc;
+    }
+
+    public LocalDateTime getDateFrom() {
+        return dateFrom;
+    }
+
+    public LocalDateTime getDateTo() {
+        return dateTo;
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * An equivalent criteria object in canonical form, for use as a cache key: settings that produce the
+     * same SQL and the same rows compare equal. The term is trimmed and, when it is plain ASCII (where
+     * both LIKE and the FTS5 tokenizer ignore case), lower-cased; the filter and sort names are reduced
+     * to the values {@link SearchQuery} distinguishes.
+     */
+    SearchCriteria normalized() {
+        String term = searchTerm == null ? "" : searchTerm.trim();
+        if (term.chars().allMatch(c -> c < 128)) {
+            term = term.toLowerCase(Locale.ROOT);
+        }
+        String filter = DerivedFlag.forFilter(filterBy) != null ? filterBy : null;
+        String sort;
+        if (SearchQuery.RELEVANCE.equalsIgnoreCase(sortBy)) {
+            sort = SearchQuery.RELEVANCE;
+        } else if ("createdAt".equalsIgnoreCase(sortBy)) {
+            sort = "createdAt";
+        } else {
+            sort = "name";
+        }
+        return new SearchCriteria(term.isEmpty() ? null : term, filter, sort, sortAsc, dateFrom, dateTo,
+                regex == null || regex.isEmpty() ? null : regex);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchCriteria)) {
+            return false;
+        }
+        SearchCriteria that = (SearchCriteria) o;
+        return sortAsc == that.sortAsc
+                && Objects.equals(searchTerm, that.searchTerm)
+                && Objects.equals(filterBy, that.filterBy)
+                && Objects.equals(sortBy, that.sortBy)
+                && Objects.equals(dateFrom, that.dateFrom)
+                && Objects.equals(dateTo, that.dateTo)
+                && Objects.equals(regex, that.regex);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(searchTerm, filterBy, sortBy, sortAsc, dateFrom, dateTo, regex);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the SQL for {@link EntityDAOImpl}'s searches and counts. The text depends only on the query
+ * shape, never on values, which are always bound, so the statement caches can reuse it.
+ */
+class SearchQuery {
+    static final String RELEVANCE = "relevance";
+
+    private final StringBuilder from = new StringBuilder("entities");
+    private final StringBuilder where = new StringBuilder("WHERE 1=1");
+    private final List<Object> params = new ArrayList<>();
+    private final String sortKeyColumn;
+    private final String orderColumn;
+    private final String keyCollation;
+    private final boolean sortAsc;
+
+    SearchQuery(SearchCriteria criteria, boolean fullText) {
+        this(criteria, fullText, StorageLayout.COMPACT, Set.copyOf(DerivedFlag.ALL));
+    }
+
+    /**
+     * @param layout       how the date range bounds are encoded
+     * @param indexedFlags flags whose column has been backfilled; filters on other flags evaluate their expression
+     */
+    SearchQuery(SearchCriteria criteria, boolean fullText, StorageLayout layout, Set<DerivedFlag> indexedFlags) {
+        String searchTerm = criteria.getSearchTerm();
+        String matchQuery = null;
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            matchQuery = fullText ? FullTextIndex.toMatchQuery(searchTerm) : null;
+            if (matchQuery == null) {
+                where.append(" AND (name LIKE ? OR description LIKE ?)");
+                String searchPattern = "%" + searchTerm.trim() + "%";
+                params.add(searchPattern);
+                params.add(searchPattern);
+            }
+        }
+
+        String sortBy = criteria.getSortBy();
+        if (matchQuery != null && RELEVANCE.equalsIgnoreCase(sortBy)) {
+            from.append(" JOIN (SELECT rowid AS rid, rank AS score FROM entities_fts WHERE entities_fts MATCH ?) ranked"
+                    + " ON ranked.rid = entities.rowid");
+            params.add(0, matchQuery);
+            sortKeyColumn = "score";
+            orderColumn = "score";
+            keyCollation = "";
+        } else {
+            if (matchQuery != null) {
+                where.append(" AND rowid IN (SELECT rowid FROM entities_fts WHERE entities_fts MATCH ?)");
+                params.add(matchQuery);
+            }
+            if (sortBy != null && sortBy.equalsIgnoreCase("createdAt")) {
+                sortKeyColumn = "createdAt";
+                orderColumn = "createdAt";
+                keyCollation = "";
+            } else {
+                sortKeyColumn = "name";
+                orderColumn = "name COLLATE NOCASE"; // Default sort
+                keyCollation = " COLLATE NOCASE";
+            }
+        }
+        sortAsc = criteria.isSortAsc();
+
+        DerivedFlag flag = DerivedFlag.forFilter(criteria.getFilterBy());
+        if (flag != null) {
+            where.append(" AND ").append(indexedFlags.contains(flag) ? flag.getColumn() + " = 1" : flag.getExpression());
+        }
+
+        String regex = criteria.getRegex();
+        if (regex != null && !regex.isEmpty()) {
+            // Rejected here rather than by the first row REGEXP sees.
+            Pattern.compile(regex);
+            where.append(" AND name REGEXP ?");
+            params.add(regex);
+        }
+
+        if (criteria.getDateFrom() != null) {
+            where.append(" AND createdAt >= ?");
+            params.add(layout.timestamp(criteria.getDateFrom()));
+        }
+
+        if (criteria.getDateTo() != null) {
+            where.append(" AND createdAt <= ?");
+            params.add(layout.timestamp(criteria.getDateTo()));
+        }
+    }
+
+    String selectSql() {
+        return select(Projection.ENTITY, "") + orderBy(sortAsc) + " LIMIT ? OFFSET ?";
+    }
+
+    String seekSql(boolean hasCursor, boolean forward) {
+        return seekSql(Projection.ENTITY, hasCursor, forward);
+    }
+
+    /**
+     * Keyset variant of {@link #selectSql}: rows strictly after (or, walking backwards, before) the
+     * bound (sort key, id) pair. Backward seeks come back in reverse display order.
+     */
+    String seekSql(Projection<?> projection, boolean hasCursor, boolean forward) {
+        boolean ascending = forward == sortAsc;
+        StringBuilder sql = new StringBuilder(select(projection, ""));
+        if (hasCursor) {
+            // The collation goes on the bound value: SQLite only turns the row-value comparison
+            // into an index range when the column side is bare.
+            sql.append(" AND (").append(sortKeyColumn).append(", id) ")
+                    .append(ascending ? ">" : "<").append(" (?").append(keyCollation).append(", ?)");
+        }
+        return sql.append(orderBy(ascending)).append(" LIMIT ? OFFSET ?").toString();
+    }
+
+    /**
+     * Like {@link #selectSql}, optionally with a {@code total_count} column holding the size of the whole
+     * result set. The count is an uncorrelated subquery, which SQLite runs once with its own plan, so the
+     * page is still read in sort index order. Bind with {@link #bindPage}.
+     */
+    String pageSql(Projection<?> projection, boolean withTotal) {
+        return select(projection, withTotal ? ", (" + countSql() + ") AS total_count" : "")
+                + orderBy(sortAsc) + " LIMIT ? OFFSET ?";
+    }
+
+    String countSql() {
+        return "SELECT COUNT(*) FROM " + from + " " + where;
+    }
+
+    /**
+     * Counts matching rows in rowid order, stopping at a limit bound after the filter parameters, and
+     * returns the count with the rowid of the last row counted.
+     */
+    String cappedCountSql() {
+        return "SELECT COUNT(*), MAX(rid) FROM (SELECT entities.rowid AS rid FROM " + from + " " + where
+                + " ORDER BY entities.rowid LIMIT ?)";
+    }
+
+    /**
+     * Position of the sort key in rows selected with {@code projection}, for building {@link PageCursor}s.
+     * A key the projection doesn't include is selected right after its columns.
+     */
+    int sortKeyIndex(Projection<?> projection) {
+        int index = projection.indexOf(sortKeyColumn);
+        return index > 0 ? index : projection.width() + 1;
+    }
+
+    /** Position of the {@code total_count} column of {@link #pageSql}. */
+    int totalCountIndex(Projection<?> projection) {
+        return projection.indexOf(sortKeyColumn) > 0 ? projection.width() + 1 : projection.width() + 2;
+    }
+
+    /** Binds the filter parameters and returns the next free parameter index. */
+    int bind(PreparedStatement pstmt) throws SQLException {
+        return bind(pstmt, 1);
+    }
+
+    /** Binds the parameters of {@link #pageSql}, the count subquery's first, and returns the next free index. */
+    int bindPage(PreparedStatement pstmt, boolean withTotal) throws SQLException {
+        return bind(pstmt, withTotal ? bind(pstmt, 1) : 1);
+    }
+
+    private int bind(PreparedStatement pstmt, int first) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(first + i, params.get(i));
+        }
+        return first + params.size();
+    }
+
+    private String select(Projection<?> projection, String extraColumns) {
+        String columns = projection.selectList();
+        if (projection.indexOf(sortKeyColumn) == 0) {
+            columns += ", " + sortKeyColumn;
+        }
+        return "SELECT " + columns + extraColumns + " FROM " + from + " " + where;
+    }
+
+    /**
+     * In-memory counterpart of the {@code LIKE '%term%'} condition: a substring match on name or
+     * description that, like SQLite's LIKE, ignores case for ASCII letters only. Returns {@code null}
+     * if the term contains LIKE wildcards.
+     */
+    static Predicate<Entity> likeMatcher(String searchTerm) {
+        String term = searchTerm.trim();
+        if (term.indexOf('%') >= 0 || term.indexOf('_') >= 0) {
+            return null;
+        }
+        return entity -> containsIgnoreAsciiCase(entity.getName(), term)
+                || containsIgnoreAsciiCase(entity.getDescription(), term);
+    }
+
+    private static boolean containsIgnoreAsciiCase(String text, String term) {
+        if (text == null) {
+            return false;
+        }
+        for (int start = 0; start + term.length() <= text.length(); start++) {
+            int i = 0;
+            while (i < term.length() && asciiLower(text.charAt(start + i)) == asciiLower(term.charAt(i))) {
+                i++;
+            }
+            if (i == term.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char asciiLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private String orderBy(boolean ascending) {
+        String direction = ascending ? "ASC" : "DESC";
+        // id breaks ties so the order is total, which keyset pagination relies on.
+        return " ORDER BY " + orderColumn + " " + direction + ", id " + direction;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.crudapp.dao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * How the {@code entities} table stores ids and timestamps: {@link #LEGACY} text until the
+ * {@link CompactStorage} swap, {@link #COMPACT} after it. Both sort the same way, since a UUID's 16
+ * big-endian bytes compare like its hex text and epoch microseconds like ISO timestamps.
+ */
+enum StorageLayout {
+    /**
+     * {@code id} as 36-character UUID text, timestamps as ISO-8601 text. Reads also accept compact
+     * values, which a query started just before another process's swap may return.
+     */
+    LEGACY {
+        @Override
+        Object id(UUID id) {
+            return id.toString();
+        }
+
+        @Override
+        Object timestamp(LocalDateTime time) {
+            return time.format(ISO);
+        }
+
+        @Override
+        UUID readId(ResultSet rs, int column) throws SQLException {
+            return readId(rs.getObject(column));
+        }
+
+        @Override
+        LocalDateTime readTimestamp(ResultSet rs, int column) throws SQLException {
+            return readTimestamp(rs.getObject(column));
+        }
+    },
+
+    /** {@code id} as a 16-byte BLOB, timestamps as INTEGER microseconds since 1970-01-01T00:00 (no zone). */
+    COMPACT {
+        @Override
+        Object id(UUID id) {
+            return toBytes(id);
+        }
+
+        @Override
+        Object timestamp(LocalDateTime time) {
+            return toMicros(time);
+        }
+
+        @Override
+        UUID readId(ResultSet rs, int column) throws SQLException {
+            byte[] bytes = rs.getBytes(column);
+            if (bytes == null) {
+                return null;
+            }
+            // An id uuid_blob couldn't parse was copied as text.
+            return bytes.length == 16 ? fromBytes(bytes) : UUID.fromString(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        LocalDateTime readTimestamp(ResultSet rs, int column) throws SQLException {
+            long micros = rs.getLong(column);
+            return micros == 0 && rs.wasNull() ? null : fromMicros(micros);
+        }
+    };
+
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /** The value to bind for an id column. */
+    abstract Object id(UUID id);
+
+    /** The value to bind for a timestamp column. */
+    abstract Object timestamp(LocalDateTime time);
+
+    /** Reads the id in the given (1-based) column of the current row. */
+    abstract UUID readId(ResultSet rs, int column) throws SQLException;
+
+    /** Reads the timestamp in the given (1-based) column of the current row. */
+    abstract LocalDateTime readTimestamp(ResultSet rs, int column) throws SQLException;
+
+    static StorageLayout of(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT type FROM pragma_table_info('entities') WHERE name = 'id'");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() && "BLOB".equalsIgnoreCase(rs.getString(1)) ? COMPACT : LEGACY;
+        }
+    }
+
+    /** Changes with every schema change, including the {@link CompactStorage} swap, in any process. */
+    static int schemaVersion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("PRAGMA schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.getInt(1);
+        }
+    }
+
+    static UUID readId(Object value) {
+        if (value instanceof byte[]) {
+            return fromBytes((byte[]) value);
+        }
+        return value == null ? null : UUID.fromString(value.toString());
+    }
+
+    static LocalDateTime readTimestamp(Object value) {
+        if (value instanceof Number) {
+            return fromMicros(((Number) value).longValue());
+        }
+        return value == null ? null : LocalDateTime.parse(value.toString(), ISO);
+    }
+
+    static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID fromBytes(byte[] bytes) {
+        return new UUID(bigEndianLong(bytes, 0), bigEndianLong(bytes, 8));
+    }
+
+    private static long bigEndianLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1_000_000L), time.getNano() / 1000);
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+}
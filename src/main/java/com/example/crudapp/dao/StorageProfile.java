@@ -0,0 +1,145 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * SQLite PRAGMA settings applied to every physical connection. Both presets use WAL; {@link #durable()}
+ * (the default) syncs on every commit, {@link #throughput()} only at checkpoints and uses more memory.
+ * Pick one with {@code crudapp.db.profile=durable|throughput}; override single values with
+ * {@code crudapp.db.pragma.<name>}.
+ */
+public class StorageProfile {
+    private final String name;
+    private String journalMode = "WAL";
+    private String synchronous = "FULL";
+    private int cacheSizeKib = 8 * 1024;
+    private long mmapSizeBytes = 0;
+    private String tempStore = "DEFAULT";
+    private int busyTimeoutMillis = 5000;
+
+    private StorageProfile(String name) {
+        this.name = name;
+    }
+
+    public static StorageProfile durable() {
+        return new StorageProfile("durable");
+    }
+
+    public static StorageProfile throughput() {
+        StorageProfile profile = new StorageProfile("throughput");
+        profile.setSynchronous("NORMAL");
+        profile.setCacheSizeKib(64 * 1024);
+        profile.setMmapSizeBytes(256L * 1024 * 1024);
+        profile.setTempStore("MEMORY");
+        return profile;
+    }
+
+    public static StorageProfile named(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "durable":
+                return durable();
+            case "throughput":
+                return throughput();
+            default:
+                throw new IllegalArgumentException("Unknown storage profile: " + name);
+        }
+    }
+
+    public static StorageProfile fromSystemProperties() {
+        StorageProfile profile = named(System.getProperty("crudapp.db.profile", "durable"));
+        profile.setJournalMode(System.getProperty("crudapp.db.pragma.journal_mode", profile.getJournalMode()));
+        profile.setSynchronous(System.getProperty("crudapp.db.pragma.synchronous", profile.getSynchronous()));
+        profile.setCacheSizeKib(Integer.getInteger("crudapp.db.pragma.cache_size", profile.getCacheSizeKib()));
+        profile.setMmapSizeBytes(Long.getLong("crudapp.db.pragma.mmap_size", profile.getMmapSizeBytes()));
+        profile.setTempStore(System.getProperty("crudapp.db.pragma.temp_store", profile.getTempStore()));
+        profile.setBusyTimeoutMillis(Integer.getInteger("crudapp.db.pragma.busy_timeout", profile.getBusyTimeoutMillis()));
+        return profile;
+    }
+
+    /** Runs the PRAGMAs on a freshly opened connection. */
+    void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // The busy timeout goes first so that switching the journal mode waits out other connections.
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            stmt.execute("PRAGMA journal_mode = " + journalMode);
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            // A negative cache_size is in KiB rather than pages.
+            stmt.execute("PRAGMA cache_size = " + (-cacheSizeKib));
+            stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public void setJournalMode(String journalMode) {
+        this.journalMode = keyword(journalMode, "DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public void setSynchronous(String synchronous) {
+        this.synchronous = keyword(synchronous, "OFF", "NORMAL", "FULL", "EXTRA");
+    }
+
+    public int getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+
+    public void setCacheSizeKib(int cacheSizeKib) {
+        this.cacheSizeKib = cacheSizeKib;
+    }
+
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    public void setMmapSizeBytes(long mmapSizeBytes) {
+        this.mmapSizeBytes = mmapSizeBytes;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public void setTempStore(String tempStore) {
+        this.tempStore = keyword(tempStore, "DEFAULT", "FILE", "MEMORY");
+    }
+
+    public int getBusyTimeoutMillis() {
+        return busyTimeoutMillis;
+    }
+
+    public void setBusyTimeoutMillis(int busyTimeoutMillis) {
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[journal_mode=" + journalMode + ", synchronous=" + synchronous
+                + ", cache_size=" + cacheSizeKib + "KiB, mmap_size=" + mmapSizeBytes
+                + ", temp_store=" + tempStore + ", busy_timeout=" + busyTimeoutMillis + "ms]";
+    }
+
+    /** PRAGMA values are spliced into SQL, so only the documented keywords are accepted. */
+    private static String keyword(String value, String... allowed) {
+        String upper = value.trim().toUpperCase(Locale.ROOT);
+        for (String candidate : allowed) {
+            if (candidate.equals(upper)) {
+                return upper;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported PRAGMA value: " + value);
+    }
+}
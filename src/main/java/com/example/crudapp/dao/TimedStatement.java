@@ -0,0 +1,75 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.metrics.SlowQueryLog;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Times the {@code execute*} calls of a prepared statement for the {@link SlowQueryLog}. For a query
+ * that is the time to the first row, which includes any sorting SQLite has to do before it can
+ * return one; reading the remaining rows is not counted.
+ */
+final class TimedStatement implements InvocationHandler {
+    private final PreparedStatement statement;
+    private final String sql;
+    private final Connection physical;
+    private final SlowQueryLog slowQueries;
+
+    private TimedStatement(PreparedStatement statement, String sql, Connection physical, SlowQueryLog slowQueries) {
+        this.statement = statement;
+        this.sql = sql;
+        this.physical = physical;
+        this.slowQueries = slowQueries;
+    }
+
+    /** @param physical the unpooled connection, for explaining slow statements without touching the statement cache */
+    static PreparedStatement wrap(PreparedStatement statement, String sql, Connection physical, SlowQueryLog slowQueries) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                TimedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new TimedStatement(statement, sql, physical, slowQueries));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Timed[" + statement + "]";
+            default:
+                break;
+        }
+        if (!method.getName().startsWith("execute")) {
+            return call(method, args);
+        }
+        long start = System.nanoTime();
+        Object result = call(method, args);
+        slowQueries.record(sql, System.nanoTime() - start, this::explain);
+        return result;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String explain() {
+        try {
+            return QueryPlan.explain(physical, sql).toString();
+        } catch (SQLException e) {
+            return "EXPLAIN QUERY PLAN failed: " + e.getMessage();
+        }
+    }
+}
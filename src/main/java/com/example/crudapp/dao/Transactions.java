@@ -0,0 +1,54 @@
+package com.example.crudapp.dao;
+
+import org.sqlite.SQLiteConfig.TransactionMode;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteConnectionConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Explicit transactions that take SQLite's write lock when they begin.
+ * <p>
+ * A plain (deferred) transaction that reads before it writes holds a WAL read snapshot, and SQLite
+ * refuses to upgrade that snapshot to a write, with {@code SQLITE_BUSY} and without waiting, once
+ * another connection has committed in between. {@code BEGIN IMMEDIATE} or {@code EXCLUSIVE} instead
+ * waits for the lock, up to the busy timeout, before anything has been read.
+ */
+final class Transactions {
+
+    @FunctionalInterface
+    interface Body<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private Transactions() {
+    }
+
+    /** Runs {@code body} in a transaction begun with {@code mode}; commits if it returns, rolls back if it throws. */
+    static <T> T run(Connection conn, TransactionMode mode, Body<T> body) throws SQLException {
+        SQLiteConnectionConfig config = conn.unwrap(SQLiteConnection.class).getConnectionConfig();
+        TransactionMode previous = config.getTransactionMode();
+        config.setTransactionMode(mode);
+        try {
+            conn.setAutoCommit(false);
+            try {
+                T result = body.run(conn);
+                conn.commit();
+                return result;
+            } catch (Throwable e) {
+                // Errors too: the finally below would otherwise commit the partial work.
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            config.setTransactionMode(previous);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.crudapp.dao;
+
+import org.sqlite.SQLiteConfig.TransactionMode;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One writer thread per {@link ConnectionPool}, which runs the DAO's mutations and the backfill batches.
+ * Schema migrations and the {@link CompactStorage} swap, which run while the pool is created, and other
+ * processes on the same file still take the write lock on their own.
+ * <p>
+ * If more writes are queued behind the first, the writer keeps collecting for up to
+ * {@link DatabaseConfig#getGroupCommitWindowMillis()} or {@link DatabaseConfig#getGroupCommitMaxSize()}
+ * writes and commits them in one {@code BEGIN IMMEDIATE} transaction, each inside its own savepoint so
+ * a failing write is rolled back alone. Futures complete once the commit has returned. Commits are
+ * recorded as {@code groupCommit} in the pool's metrics; {@link #getStats()} adds the throughput.
+ */
+public final class WriteQueue implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(WriteQueue.class.getName());
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+    /** How often an idle writer checks whether the queue has been closed. */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /** One mutation, run on the writer's connection inside the group's transaction. */
+    @FunctionalInterface
+    public interface Write<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private final ConnectionPool pool;
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAccumulator maxGroupSize = new LongAccumulator(Math::max, 0);
+    private volatile boolean closed;
+
+    WriteQueue(ConnectionPool pool) {
+        this.pool = pool;
+        this.writer = new Thread(this::run, "sqlite-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a write. The future completes with its result once the transaction containing it has
+     * committed, or exceptionally with what it threw.
+     */
+    public <T> CompletableFuture<T> submit(Write<T> write) {
+        Task<T> task = new Task<>(write);
+        if (closed) {
+            task.future.completeExceptionally(new SQLException("Write queue is closed"));
+            return task.future;
+        }
+        if (Thread.currentThread() == writer) {
+            // Called from inside a write: queuing would wait on itself.
+            task.future.completeExceptionally(new IllegalStateException("Writes cannot be submitted from within a write"));
+            return task.future;
+        }
+        queue.add(task);
+        return task.future;
+    }
+
+    /** Like {@link #submit}, but waits for the commit and rethrows what the write threw. */
+    public <T> T execute(Write<T> write) throws SQLException {
+        try {
+            return submit(write).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    public WriteQueueStats getStats() {
+        return new WriteQueueStats(queue.size(), commits.sum(), writes.sum(), failedWrites.sum(),
+                maxGroupSize.get(), busyNanos.sum(), System.nanoTime() - startNanos);
+    }
+
+    /** Stops accepting writes, then commits everything already queued before the writer exits. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that slipped in after the writer's last look at the queue.
+        Task<?> task;
+        while ((task = queue.poll()) != null) {
+            task.future.completeExceptionally(new SQLException("Write queue is closed"));
+        }
+    }
+
+    private void run() {
+        List<Task<?>> group = new ArrayList<>();
+        try {
+            while (!closed || !queue.isEmpty()) {
+                collect(group);
+                if (!group.isEmpty()) {
+                    commit(group);
+                    group.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.log(Level.WARNING, "Writer interrupted", e);
+        }
+    }
+
+    private void collect(List<Task<?>> group) throws InterruptedException {
+        Task<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+        DatabaseConfig config = pool.getConfig();
+        int maxSize = config.getGroupCommitMaxSize();
+        queue.drainTo(group, maxSize - group.size());
+        if (group.size() == 1 || group.size() >= maxSize) {
+            // Either nobody else is writing, so waiting would only add latency, or the group is full.
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getGroupCommitWindowMillis());
+        while (group.size() < maxSize) {
+            long remaining = deadline - System.nanoTime();
+            Task<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+            queue.drainTo(group, maxSize - group.size());
+        }
+    }
+
+    private void commit(List<Task<?>> group) {
+        long start = System.nanoTime();
+        int failed = 0;
+        Throwable commitError = null;
+        try (Connection conn = pool.getConnection()) {
+            failed = Transactions.run(conn, TransactionMode.IMMEDIATE, tx -> runAll(tx, group));
+        } catch (Throwable e) {
+            // Fails the group rather than the writer thread, which every later write depends on.
+            commitError = e;
+            LOG.log(Level.WARNING, "Group commit of " + group.size() + " writes failed", e);
+        }
+        long nanos = System.nanoTime() - start;
+
+        commits.increment();
+        writes.add(group.size());
+        failedWrites.add(commitError == null ? failed : group.size());
+        busyNanos.add(nanos);
+        maxGroupSize.accumulate(group.size());
+        pool.getMetrics().record("groupCommit", nanos, group.size(), commitError != null);
+        for (Task<?> task : group) {
+            task.complete(commitError);
+        }
+    }
+
+    /** Runs each write in its own savepoint; returns how many failed and were rolled back. */
+    private static int runAll(Connection conn, List<Task<?>> group) throws SQLException {
+        int failed = 0;
+        for (Task<?> task : group) {
+            Savepoint savepoint = conn.setSavepoint();
+            if (task.run(conn)) {
+                conn.releaseSavepoint(savepoint);
+            } else {
+                conn.rollback(savepoint);
+                conn.releaseSavepoint(savepoint);
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static final class Task<T> {
+        final Write<T> write;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Throwable error;
+
+        Task(Write<T> write) {
+            this.write = write;
+        }
+
+        /** Runs the write; false if it threw and has to be rolled back. */
+        boolean run(Connection conn) {
+            try {
+                result = write.apply(conn);
+                return true;
+            } catch (Throwable e) {
+                error = e;
+                return false;
+            }
+        }
+
+        void complete(Throwable commitError) {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else if (commitError != null) {
+                future.completeExceptionally(commitError);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
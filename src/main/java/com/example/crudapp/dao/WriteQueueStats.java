@@ -0,0 +1,73 @@
+package com.example.crudapp.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time snapshot of {@link WriteQueue} throughput.
+ */
+public class WriteQueueStats {
+    private final int queued;
+    private final long commits;
+    private final long writes;
+    private final long failedWrites;
+    private final long maxGroupSize;
+    private final long busyNanos;
+    private final long uptimeNanos;
+
+    WriteQueueStats(int queued, long commits, long writes, long failedWrites, long maxGroupSize,
+                    long busyNanos, long uptimeNanos) {
+        this.queued = queued;
+        this.commits = commits;
+        this.writes = writes;
+        this.failedWrites = failedWrites;
+        this.maxGroupSize = maxGroupSize;
+        this.busyNanos = busyNanos;
+        this.uptimeNanos = uptimeNanos;
+    }
+
+    /** Writes waiting for the writer. */
+    public int getQueued() {
+        return queued;
+    }
+
+    /** Transactions committed (or attempted), each holding one group of writes. */
+    public long getCommits() {
+        return commits;
+    }
+
+    /** Writes processed, including failed ones. */
+    public long getWrites() {
+        return writes;
+    }
+
+    /** Writes that threw, or whose group failed to commit. */
+    public long getFailedWrites() {
+        return failedWrites;
+    }
+
+    public long getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public double getAverageGroupSize() {
+        return commits == 0 ? 0 : (double) writes / commits;
+    }
+
+    /** Writes per second of time the writer spent running and committing groups: its capacity. */
+    public double getWritesPerBusySecond() {
+        return busyNanos == 0 ? 0 : writes * (double) TimeUnit.SECONDS.toNanos(1) / busyNanos;
+    }
+
+    /** Writes per second since the queue started: the load it has actually carried. */
+    public double getWritesPerSecond() {
+        return uptimeNanos == 0 ? 0 : writes * (double) TimeUnit.SECONDS.toNanos(1) / uptimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WriteQueueStats[queued=%d, commits=%d, writes=%d, failed=%d, avgGroup=%.1f, maxGroup=%d, "
+                        + "writes/s=%.1f, writes/busy s=%.1f]",
+                queued, commits, writes, failedWrites, getAverageGroupSize(), maxGroupSize,
+                getWritesPerSecond(), getWritesPerBusySecond());
+    }
+}
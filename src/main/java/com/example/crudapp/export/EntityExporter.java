@@ -0,0 +1,203 @@
+package com.example.crudapp.export;
+
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.model.Entity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes every entity to a file or channel as CSV or JSON Lines, optionally gzip-compressed, streaming
+ * rows from {@link EntityDAO#forEach} through a fixed-size buffer. The channel must be blocking.
+ */
+public class EntityExporter {
+    /** Rows between two progress reports. */
+    public static final long PROGRESS_INTERVAL = 10_000;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    public enum Format {
+        /** RFC 4180: a header row, CRLF line ends, fields quoted when they contain a comma, quote or line break. */
+        CSV {
+            @Override
+            void header(StringBuilder line) {
+                line.append("id,name,description,createdAt,updatedAt\r\n");
+            }
+
+            @Override
+            void row(StringBuilder line, Entity entity) {
+                csv(line, text(entity.getId()));
+                line.append(',');
+                csv(line, entity.getName());
+                line.append(',');
+                csv(line, entity.getDescription());
+                line.append(',');
+                csv(line, text(entity.getCreatedAt()));
+                line.append(',');
+                csv(line, text(entity.getUpdatedAt()));
+                line.append("\r\n");
+            }
+        },
+
+        /** One JSON object per line, with a field per column; missing values are {@code null}. */
+        JSON_LINES {
+            @Override
+            void header(StringBuilder line) {
+            }
+
+            @Override
+            void row(StringBuilder line, Entity entity) {
+                line.append("{\"id\":");
+                json(line, text(entity.getId()));
+                line.append(",\"name\":");
+                json(line, entity.getName());
+                line.append(",\"description\":");
+                json(line, entity.getDescription());
+                line.append(",\"createdAt\":");
+                json(line, text(entity.getCreatedAt()));
+                line.append(",\"updatedAt\":");
+                json(line, text(entity.getUpdatedAt()));
+                line.append("}\n");
+            }
+        };
+
+        abstract void header(StringBuilder line);
+
+        abstract void row(StringBuilder line, Entity entity);
+    }
+
+    private final EntityDAO entityDAO;
+
+    public EntityExporter(EntityDAO entityDAO) {
+        this.entityDAO = entityDAO;
+    }
+
+    /**
+     * Exports to {@code file}, replacing it if it exists.
+     *
+     * @param progress called with the number of rows written every {@link #PROGRESS_INTERVAL} rows and
+     *                 once at the end
+     * @return the number of rows written
+     */
+    public long export(Path file, Format format, boolean gzip, LongConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(channel, format, gzip, progress);
+        }
+    }
+
+    /** Like {@link #export(Path, Format, boolean, LongConsumer)}; the channel is left open. */
+    public long export(WritableByteChannel channel, Format format, boolean gzip, LongConsumer progress) throws IOException {
+        GZIPOutputStream zip = gzip ? new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES) : null;
+        Writer out = Channels.newWriter(zip != null ? Channels.newChannel(zip) : channel,
+                StandardCharsets.UTF_8.newEncoder(), BUFFER_BYTES);
+        StringBuilder line = new StringBuilder(256);
+        long[] rows = {0};
+
+        format.header(line);
+        out.append(line);
+        try {
+            entityDAO.forEach(entity -> {
+                line.setLength(0);
+                format.row(line, entity);
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % PROGRESS_INTERVAL == 0) {
+                    progress.accept(rows[0]);
+                }
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        if (zip != null) {
+            zip.finish();
+            zip.flush();
+        }
+        progress.accept(rows[0]);
+        return rows[0];
+    }
+
+    private static String text(UUID id) {
+        return id == null ? null : id.toString();
+    }
+
+    private static String text(LocalDateTime time) {
+        return time == null ? null : time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private static void csv(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void json(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
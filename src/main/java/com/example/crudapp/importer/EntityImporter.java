@@ -0,0 +1,399 @@
+package com.example.crudapp.importer;
+
+import com.example.crudapp.dao.BatchFailure;
+import com.example.crudapp.dao.BatchResult;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.export.EntityExporter;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.ValidationException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Loads a CSV or JSON Lines file, as written by {@link EntityExporter}, into the entities table. One
+ * thread reads blocks of {@link #setBatchSize batch size} records, workers parse and validate them in
+ * parallel, and the calling thread inserts each block, in file order, with one {@link EntityDAO#addAll}.
+ * Missing {@code createdAt} and {@code updatedAt} values are filled in as {@link EntityDAO#add} does.
+ * <p>
+ * Rejected rows go to {@code <file>.rejects} with the reason added. A checkpoint
+ * ({@code <file>.checkpoint}) lets an interrupted import of the same file resume after the last
+ * committed block. A crash between a commit and its checkpoint replays that block; rows without an id
+ * get one derived from the file and the record's offset, so the replay finds them already stored.
+ */
+public class EntityImporter {
+    private static final Logger LOG = Logger.getLogger(EntityImporter.class.getName());
+    private static final String REJECT_REASON = "rejectReason";
+
+    private final EntityDAO entityDAO;
+    private int batchSize = 5000;
+    private int parserThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /** The rows of one block that made it through parsing, and why the others didn't. */
+    private static final class ParsedBlock {
+        final RecordReader.Block block;
+        final List<Entity> entities = new ArrayList<>();
+        /** Record index within the block of each entry in {@link #entities}. */
+        final List<Integer> entityRecords = new ArrayList<>();
+        /** Rejected record index within the block to reason, in record order. */
+        final Map<Integer, String> rejects = new TreeMap<>();
+
+        ParsedBlock(RecordReader.Block block) {
+            this.block = block;
+        }
+    }
+
+    private static final Future<ParsedBlock> END = CompletableFuture.completedFuture(null);
+
+    public EntityImporter(EntityDAO entityDAO) {
+        this.entityDAO = entityDAO;
+    }
+
+    /** Records per block, and so per transaction and per checkpoint. */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /** Number of threads parsing and validating blocks. */
+    public void setParserThreads(int parserThreads) {
+        if (parserThreads < 1) {
+            throw new IllegalArgumentException("parserThreads must be positive");
+        }
+        this.parserThreads = parserThreads;
+    }
+
+    /**
+     * Imports {@code file}, resuming from its checkpoint if an earlier run left one.
+     *
+     * @param progress called with the number of records handled so far (imported or rejected) after
+     *                 each block
+     * @throws IOException if the file can't be read, or has changed since the checkpoint was written
+     */
+    public ImportResult importFile(Path file, EntityExporter.Format format, LongConsumer progress) throws IOException {
+        long started = System.nanoTime();
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Path rejectsFile = file.resolveSibling(file.getFileName() + ".rejects");
+        boolean csv = format == EntityExporter.Format.CSV;
+
+        String header = null;
+        long dataStart = 0;
+        if (csv) {
+            try (RecordReader reader = new RecordReader(file, true, 0)) {
+                RecordReader.Block block = reader.next(1);
+                if (block == null) {
+                    throw new IOException("CSV file " + file + " has no header");
+                }
+                header = record(block, 0);
+                if (header.startsWith("\uFEFF")) {
+                    header = header.substring(1);
+                }
+                dataStart = reader.position();
+            }
+        }
+        Map<String, Integer> columns = csv ? columns(header) : null;
+
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(file);
+        if (checkpoint != null && !checkpoint.matches(size, modified)) {
+            throw new IOException("File " + file + " changed since its import checkpoint was written; delete "
+                    + ImportCheckpoint.path(file) + " to import it from the start");
+        }
+        boolean resumed = checkpoint != null;
+        if (!resumed) {
+            Files.deleteIfExists(rejectsFile);
+            checkpoint = new ImportCheckpoint(size, modified, dataStart, 0, 0);
+        }
+        long imported = checkpoint.imported;
+        long rejected = checkpoint.rejected;
+        long processedThisRun = 0;
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, daemonThreads("entity-import-parser"));
+        BlockingQueue<Future<ParsedBlock>> parsed = new ArrayBlockingQueue<>(parserThreads * 2);
+        RecordReader reader = new RecordReader(file, csv, checkpoint.offset);
+        Thread readerThread = new Thread(() -> read(reader, parsers, parsed, columns, size, modified),
+                "entity-import-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        Writer rejects = null;
+        boolean mayReplay = resumed;
+        try {
+            while (true) {
+                ParsedBlock block = take(parsed);
+                if (block == null) {
+                    break;
+                }
+                if (mayReplay) {
+                    imported += dropStored(block);
+                    mayReplay = false;
+                }
+                BatchResult result = entityDAO.addAll(block.entities);
+                for (BatchFailure failure : result.getFailures()) {
+                    block.rejects.put(block.entityRecords.get(failure.getIndex()), failure.getMessage());
+                }
+                if (!block.rejects.isEmpty()) {
+                    if (rejects == null) {
+                        rejects = openRejects(rejectsFile, header);
+                    }
+                    for (Map.Entry<Integer, String> reject : block.rejects.entrySet()) {
+                        rejects.write(rejectLine(csv, record(block.block, reject.getKey()), reject.getValue()));
+                    }
+                    // On disk before the checkpoint says these records are done.
+                    rejects.flush();
+                }
+                imported += result.getSucceeded();
+                rejected += block.rejects.size();
+                processedThisRun += block.block.records;
+                new ImportCheckpoint(size, modified, block.block.end, imported, rejected).save(file);
+                progress.accept(imported + rejected);
+            }
+        } finally {
+            readerThread.interrupt();
+            parsers.shutdownNow();
+            if (rejects != null) {
+                rejects.close();
+            }
+            reader.close();
+        }
+        ImportCheckpoint.delete(file);
+
+        ImportResult result = new ImportResult(imported, rejected, processedThisRun, System.nanoTime() - started,
+                resumed, rejected > 0 ? rejectsFile : null);
+        LOG.info(() -> "Imported " + file + ": " + result);
+        return result;
+    }
+
+    /**
+     * Drops the rows of the first block after a resume that a crashed run committed before it could
+     * save the checkpoint, and returns how many there were.
+     */
+    private int dropStored(ParsedBlock block) {
+        int stored = 0;
+        for (int i = block.entities.size() - 1; i >= 0; i--) {
+            Entity entity = block.entities.get(i);
+            Optional<Entity> existing = entityDAO.get(entity.getId());
+            if (existing.isPresent() && Objects.equals(existing.get().getName(), entity.getName())
+                    && Objects.equals(existing.get().getDescription(), entity.getDescription())) {
+                block.entities.remove(i);
+                block.entityRecords.remove(i);
+                stored++;
+            }
+        }
+        return stored;
+    }
+
+    /** Reader thread: cuts the file into blocks and queues their parsing, in order. */
+    private void read(RecordReader reader, ExecutorService parsers, BlockingQueue<Future<ParsedBlock>> parsed,
+                      Map<String, Integer> columns, long fileSize, long fileModified) {
+        try {
+            try {
+                RecordReader.Block block;
+                while ((block = reader.next(batchSize)) != null) {
+                    RecordReader.Block next = block;
+                    parsed.put(parsers.submit(() -> parse(next, columns, fileSize, fileModified)));
+                }
+                parsed.put(END);
+            } catch (IOException | RuntimeException e) {
+                CompletableFuture<ParsedBlock> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                parsed.put(failed);
+            }
+        } catch (InterruptedException e) {
+            // The writer gave up.
+        }
+    }
+
+    private static ParsedBlock take(BlockingQueue<Future<ParsedBlock>> parsed) throws IOException {
+        try {
+            Future<ParsedBlock> next = parsed.take();
+            return next == END ? null : next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException("Error parsing import file", e.getCause());
+        }
+    }
+
+    /** Worker: parses and validates every record of a block. {@code columns} is null for JSON Lines. */
+    private static ParsedBlock parse(RecordReader.Block block, Map<String, Integer> columns,
+                                     long fileSize, long fileModified) {
+        ParsedBlock parsed = new ParsedBlock(block);
+        for (int i = 0; i < block.records; i++) {
+            String record = record(block, i);
+            try {
+                Entity entity = columns != null ? fromCsv(record, columns) : fromJson(record);
+                if (entity.getId() == null) {
+                    entity.setId(recordId(fileSize, fileModified, block.start + block.recordStarts[i]));
+                }
+                EntityDAOImpl.validateEntity(entity);
+                parsed.entities.add(entity);
+                parsed.entityRecords.add(i);
+            } catch (IllegalArgumentException | ValidationException e) {
+                parsed.rejects.put(i, e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    private static Map<String, Integer> columns(String header) throws IOException {
+        Map<String, Integer> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> names;
+        try {
+            names = RecordParser.csv(header);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed CSV header: " + e.getMessage());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim(), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new IOException("CSV header has no name column: " + header);
+        }
+        return columns;
+    }
+
+    private static Entity fromCsv(String record, Map<String, Integer> columns) {
+        List<String> fields = RecordParser.csv(record);
+        return entity(field(fields, columns, "id"), field(fields, columns, "name"), field(fields, columns, "description"),
+                field(fields, columns, "createdAt"), field(fields, columns, "updatedAt"));
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Entity fromJson(String record) {
+        Map<String, String> members = RecordParser.jsonObject(record);
+        return entity(members.get("id"), members.get("name"), members.get("description"),
+                members.get("createdAt"), members.get("updatedAt"));
+    }
+
+    private static Entity entity(String id, String name, String description, String createdAt, String updatedAt) {
+        UUID uuid = null;
+        if (id != null && !id.isEmpty()) {
+            try {
+                uuid = UUID.fromString(id);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid id: " + id);
+            }
+        }
+        return new Entity(uuid, name, description, timestamp("createdAt", createdAt), timestamp("updatedAt", updatedAt));
+    }
+
+    /** ISO-8601 local date-time, as {@link EntityExporter} writes it; null if the value is missing. */
+    private static LocalDateTime timestamp(String column, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    /** The same for a record every time the unchanged file is imported. */
+    private static UUID recordId(long fileSize, long fileModified, long offset) {
+        return UUID.nameUUIDFromBytes(ByteBuffer.allocate(24).putLong(fileSize).putLong(fileModified).putLong(offset).array());
+    }
+
+    private static String record(RecordReader.Block block, int index) {
+        int start = block.recordStarts[index];
+        return new String(block.data, start, block.recordEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    private static Writer openRejects(Path rejectsFile, String header) throws IOException {
+        boolean fresh = !Files.exists(rejectsFile) || Files.size(rejectsFile) == 0;
+        Writer out = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (fresh && header != null) {
+            out.write(header + "," + REJECT_REASON + "\r\n");
+        }
+        return out;
+    }
+
+    /** The record as read, plus the reason: as a last CSV field, or as a last JSON member. */
+    private static String rejectLine(boolean csv, String record, String reason) {
+        StringBuilder line = new StringBuilder(record.length() + 64);
+        if (csv) {
+            line.append(record).append(",\"").append(reason.replace("\"", "\"\"")).append("\"\r\n");
+            return line.toString();
+        }
+        String trimmed = record.trim();
+        if (trimmed.endsWith("}") && trimmed.length() > 1) {
+            String body = trimmed.substring(0, trimmed.length() - 1).trim();
+            line.append(body).append(body.endsWith("{") ? "" : ",");
+        } else {
+            // Not an object at all: keep the text as a member of one.
+            line.append("{\"record\":");
+            jsonString(line, record);
+            line.append(',');
+        }
+        line.append('"').append(REJECT_REASON).append("\":");
+        jsonString(line, reason);
+        return line.append("}\n").toString();
+    }
+
+    private static void jsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger threads = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
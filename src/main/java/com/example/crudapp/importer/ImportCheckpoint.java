@@ -0,0 +1,80 @@
+package com.example.crudapp.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * How far an import of one file has got: everything before {@link #offset} has been written to the
+ * database or the rejects file. Stored next to the file being imported, together with the file's size
+ * and modification time so a checkpoint is never applied to a file that has changed since.
+ */
+final class ImportCheckpoint {
+    final long fileSize;
+    final long fileModified;
+    final long offset;
+    final long imported;
+    final long rejected;
+
+    ImportCheckpoint(long fileSize, long fileModified, long offset, long imported, long rejected) {
+        this.fileSize = fileSize;
+        this.fileModified = fileModified;
+        this.offset = offset;
+        this.imported = imported;
+        this.rejected = rejected;
+    }
+
+    static Path path(Path file) {
+        return file.resolveSibling(file.getFileName() + ".checkpoint");
+    }
+
+    /** The checkpoint of an unfinished import of {@code file}, or {@code null} if there is none. */
+    static ImportCheckpoint load(Path file) throws IOException {
+        Path path = path(file);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(path)) {
+            properties.load(in);
+        }
+        try {
+            return new ImportCheckpoint(
+                    Long.parseLong(properties.getProperty("fileSize")),
+                    Long.parseLong(properties.getProperty("fileModified")),
+                    Long.parseLong(properties.getProperty("offset")),
+                    Long.parseLong(properties.getProperty("imported")),
+                    Long.parseLong(properties.getProperty("rejected")));
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt import checkpoint " + path, e);
+        }
+    }
+
+    boolean matches(long size, long modified) {
+        return fileSize == size && fileModified == modified;
+    }
+
+    /** Replaces the stored checkpoint atomically, so a crash leaves either the old or the new one. */
+    void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fileSize", Long.toString(fileSize));
+        properties.setProperty("fileModified", Long.toString(fileModified));
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("rejected", Long.toString(rejected));
+        Path path = path(file);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp)) {
+            properties.store(out, null);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void delete(Path file) throws IOException {
+        Files.deleteIfExists(path(file));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.crudapp.importer;
+
+import java.nio.file.Path;
+
+/** Outcome of {@link EntityImporter#importFile}. Counts include rows handled before a resumed run. */
+public class ImportResult {
+    private final long imported;
+    private final long rejected;
+    private final long processedThisRun;
+    private final long elapsedNanos;
+    private final boolean resumed;
+    private final Path rejectsFile;
+
+    ImportResult(long imported, long rejected, long processedThisRun, long elapsedNanos, boolean resumed, Path rejectsFile) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.processedThisRun = processedThisRun;
+        this.elapsedNanos = elapsedNanos;
+        this.resumed = resumed;
+        this.rejectsFile = rejectsFile;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** Whether this run continued from a checkpoint left by an earlier one. */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /** Where rejected records were written, or {@code null} if there were none. */
+    public Path getRejectsFile() {
+        return rejectsFile;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** Records (imported or rejected) handled per second by this run. */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : processedThisRun * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportResult{imported=%d, rejected=%d, %.0f rows/s%s}", imported, rejected,
+                getRowsPerSecond(), resumed ? ", resumed" : "");
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.crudapp.importer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses single records of the formats {@link com.example.crudapp.export.EntityExporter} writes.
+ * Malformed input throws {@link IllegalArgumentException} with a message fit for the rejects file.
+ */
+final class RecordParser {
+    private RecordParser() {
+    }
+
+    /** The fields of one RFC 4180 CSV record. */
+    static List<String> csv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < record.length() && record.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= record.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = record.charAt(i++);
+                    if (c == '"') {
+                        if (i < record.length() && record.charAt(i) == '"') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    field.append(c);
+                }
+                if (i < record.length() && record.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected text after quoted field at column " + (i + 1));
+                }
+            } else {
+                while (i < record.length() && record.charAt(i) != ',') {
+                    field.append(record.charAt(i++));
+                }
+            }
+            fields.add(field.toString());
+            if (i >= record.length()) {
+                return fields;
+            }
+            i++; // The comma.
+        }
+    }
+
+    /**
+     * The members of one flat JSON object. Strings, numbers and literals are returned as text
+     * ({@code null} as Java {@code null}); nested objects and arrays are rejected.
+     */
+    static Map<String, String> jsonObject(String record) {
+        JsonCursor cursor = new JsonCursor(record);
+        Map<String, String> members = new HashMap<>();
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String name = cursor.string();
+                cursor.expect(':');
+                members.put(name, cursor.value());
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+        cursor.end();
+        return members;
+    }
+
+    private static final class JsonCursor {
+        private final String text;
+        private int i;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (i < text.length() && text.charAt(i) == c) {
+                i++;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            skipSpace();
+            if (i < text.length()) {
+                throw error("Unexpected text after the object");
+            }
+        }
+
+        String value() {
+            skipSpace();
+            if (i >= text.length()) {
+                throw error("Expected a value");
+            }
+            char c = text.charAt(i);
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Nested values are not supported");
+            }
+            int start = i;
+            while (i < text.length() && "-+.0123456789eEtruefalsn".indexOf(text.charAt(i)) >= 0) {
+                i++;
+            }
+            String literal = text.substring(start, i);
+            if (literal.isEmpty()) {
+                throw error("Expected a value");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        String string() {
+            skipSpace();
+            if (i >= text.length() || text.charAt(i) != '"') {
+                throw error("Expected a string");
+            }
+            i++;
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (i >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(i++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (i >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = text.charAt(i++);
+                switch (escaped) {
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (i + 4 > text.length()) {
+                            throw error("Bad \\u escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad \\u escape");
+                        }
+                        i += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+        }
+
+        private void skipSpace() {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + (i + 1));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.crudapp.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Cuts a file into {@link Block}s of whole records, one record per line, reading it through a
+ * memory-mapped window that slides along the file. With {@code quotedLineBreaks} a line break inside
+ * double quotes doesn't end the record, as in CSV.
+ * <p>
+ * Not thread-safe: one thread reads, and hands the blocks to others.
+ */
+final class RecordReader implements AutoCloseable {
+    static final long WINDOW_BYTES = 64L << 20;
+    private static final int INITIAL_BLOCK_BYTES = 1 << 16;
+
+    /** Records {@code [start, end)} of the file, copied out of the mapping. */
+    static final class Block {
+        final long start;
+        final long end;
+        final byte[] data;
+        /** Offset in {@link #data} where record {@code i} starts. */
+        final int[] recordStarts;
+        /** Offset in {@link #data} where record {@code i} ends, line break excluded. */
+        final int[] recordEnds;
+        final int records;
+
+        Block(long start, long end, byte[] data, int[] recordStarts, int[] recordEnds, int records) {
+            this.start = start;
+            this.end = end;
+            this.data = data;
+            this.recordStarts = recordStarts;
+            this.recordEnds = recordEnds;
+            this.records = records;
+        }
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private final boolean quotedLineBreaks;
+    private final long windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long position;
+    private long mappedBytes;
+
+    RecordReader(Path file, boolean quotedLineBreaks, long start) throws IOException {
+        this(file, quotedLineBreaks, start, WINDOW_BYTES);
+    }
+
+    RecordReader(Path file, boolean quotedLineBreaks, long start, long windowBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.quotedLineBreaks = quotedLineBreaks;
+        this.windowBytes = windowBytes;
+        this.position = start;
+    }
+
+    /** File offset of the first record not read yet. */
+    long position() {
+        return position;
+    }
+
+    /** Bytes mapped so far, summed over every window. */
+    long mappedBytes() {
+        return mappedBytes;
+    }
+
+    /**
+     * The next block of up to {@code maxRecords} non-empty records, or {@code null} at the end of the
+     * file. Empty lines are skipped.
+     */
+    Block next(int maxRecords) throws IOException {
+        long start = position;
+        int[] starts = new int[maxRecords];
+        int[] ends = new int[maxRecords];
+        int records = 0;
+        byte[] data = new byte[(int) Math.min(size - start, INITIAL_BLOCK_BYTES)];
+        int length = 0;
+        int recordStart = 0;
+        boolean inQuotes = false;
+        // Each pass scans what is left of the window and copies it out, so every byte is mapped once.
+        while (position < size && records < maxRecords) {
+            if (position < windowStart || position >= windowEnd) {
+                map(position);
+            }
+            int from = (int) (position - windowStart);
+            int limit = (int) (windowEnd - windowStart);
+            int i = from;
+            while (i < limit && records < maxRecords) {
+                byte b = window.get(i++);
+                if (b == '"' && quotedLineBreaks) {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    int end = length + (i - 1 - from);
+                    records = add(starts, ends, records, recordStart, end, data, length, from);
+                    recordStart = end + 1;
+                }
+            }
+            data = append(data, length, from, i - from, start);
+            length += i - from;
+            position = windowStart + i;
+        }
+        if (position == size && recordStart < length && records < maxRecords) {
+            // The last record has no line break after it, or an unclosed quote swallowed it.
+            int end = data[length - 1] == '\n' ? length - 1 : length;
+            records = add(starts, ends, records, recordStart, end, data, length, 0);
+        }
+        if (records == 0) {
+            return null;
+        }
+        return new Block(start, position, length == data.length ? data : Arrays.copyOf(data, length),
+                starts, ends, records);
+    }
+
+    /**
+     * Adds the record {@code [from, to)} unless it is empty once a trailing carriage return is dropped.
+     * Offsets are in the block; those from {@code copied} on are still in the window, at {@code windowFrom}.
+     */
+    private int add(int[] starts, int[] ends, int records, int from, int to,
+                    byte[] data, int copied, int windowFrom) {
+        if (to > from) {
+            int last = to - 1;
+            byte b = last < copied ? data[last] : window.get(windowFrom + last - copied);
+            if (b == '\r') {
+                to--;
+            }
+        }
+        if (to == from) {
+            return records;
+        }
+        starts[records] = from;
+        ends[records] = to;
+        return records + 1;
+    }
+
+    /** Copies {@code count} window bytes from {@code windowFrom} to {@code data[length]}, growing it as needed. */
+    private byte[] append(byte[] data, int length, int windowFrom, int count, long blockStart) throws IOException {
+        long needed = (long) length + count;
+        if (needed > Integer.MAX_VALUE - 8) {
+            throw new IOException("Block of " + needed + " bytes at offset " + blockStart + " is too large");
+        }
+        if (needed > data.length) {
+            data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * data.length)));
+        }
+        ByteBuffer view = window.duplicate();
+        view.position(windowFrom);
+        view.get(data, length, count);
+        return data;
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        windowEnd = Math.min(size, offset + windowBytes);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        mappedBytes += windowEnd - windowStart;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.crudapp.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, row and error counts per DAO operation, connection acquisition times and slow statements
+ * for one database. Filled in by {@code InstrumentedEntityDAO} and the connection pool; read through
+ * the getters or, once {@link #register registered}, over JMX.
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+    private static final String DOMAIN = "com.example.crudapp";
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final SlowQueryLog slowQueries;
+
+    /** @param slowQueryThresholdMillis see {@link SlowQueryLog#setThresholdMillis} */
+    public DaoMetrics(long slowQueryThresholdMillis) {
+        this.slowQueries = new SlowQueryLog(slowQueryThresholdMillis);
+    }
+
+    /** Records one call of {@code operation}, which returned or wrote {@code rows} rows or, if {@code failed}, threw. */
+    public void record(String operation, long nanos, long rows, boolean failed) {
+        Operation stats = operations.computeIfAbsent(operation, name -> new Operation());
+        stats.latency.record(nanos);
+        stats.rows.add(rows);
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+
+    public void recordConnectionAcquire(long nanos) {
+        connectionAcquire.record(nanos);
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueries;
+    }
+
+    /** Stats for one operation, or {@code null} if it hasn't been called. */
+    public OperationStats getOperation(String operation) {
+        Operation stats = operations.get(operation);
+        return stats == null ? null : stats.snapshot(operation);
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> result = new ArrayList<>();
+        new TreeMap<>(operations).forEach((name, stats) -> result.add(stats.snapshot(name)));
+        return result;
+    }
+
+    @Override
+    public OperationStats getConnectionAcquire() {
+        return new OperationStats("connectionAcquire", connectionAcquire, 0, 0);
+    }
+
+    @Override
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueries.getRecent();
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueries.getCount();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return slowQueries.getThresholdMillis();
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        slowQueries.setThresholdMillis(thresholdMillis);
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+        connectionAcquire.reset();
+        slowQueries.reset();
+    }
+
+    /**
+     * Exposes these metrics through the platform MBean server as
+     * {@code com.example.crudapp:type=DaoMetrics,name=<name>}, replacing any earlier registration.
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=DaoMetrics,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new RuntimeException("Failed to register DAO metrics", e);
+        }
+    }
+
+    private static final class Operation {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        OperationStats snapshot(String name) {
+            return new OperationStats(name, latency, errors.sum(), rows.sum());
+        }
+    }
+}
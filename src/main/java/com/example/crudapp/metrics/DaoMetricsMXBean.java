@@ -0,0 +1,26 @@
+package com.example.crudapp.metrics;
+
+import java.util.List;
+
+/**
+ * The JMX view of {@link DaoMetrics}, see {@link DaoMetrics#register}.
+ * Stats are open types (composite data), so any JMX client can read them without the app's classes.
+ */
+public interface DaoMetricsMXBean {
+    /** One entry per DAO method and query shape that has been called. */
+    List<OperationStats> getOperations();
+
+    /** Time spent waiting for a pooled connection. */
+    OperationStats getConnectionAcquire();
+
+    List<SlowQuery> getSlowQueries();
+
+    long getSlowQueryCount();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    /** Clears all counters, histograms and the slow query log. */
+    void reset();
+}
@@ -0,0 +1,83 @@
+package com.example.crudapp.metrics;
+
+/**
+ * Point-in-time snapshot of one timed operation. Durations are in milliseconds; percentiles are
+ * accurate to within the {@link LatencyHistogram} bucket width.
+ */
+public class OperationStats {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String operation;
+    private final long count;
+    private final long errors;
+    private final long rows;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double p999Millis;
+    private final double maxMillis;
+
+    OperationStats(String operation, LatencyHistogram latency, long errors, long rows) {
+        this.operation = operation;
+        this.count = latency.getCount();
+        this.errors = errors;
+        this.rows = rows;
+        this.meanMillis = latency.getMeanNanos() / NANOS_PER_MILLI;
+        this.p50Millis = latency.getValueAtPercentile(50) / NANOS_PER_MILLI;
+        this.p90Millis = latency.getValueAtPercentile(90) / NANOS_PER_MILLI;
+        this.p99Millis = latency.getValueAtPercentile(99) / NANOS_PER_MILLI;
+        this.p999Millis = latency.getValueAtPercentile(99.9) / NANOS_PER_MILLI;
+        this.maxMillis = latency.getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    /** Method name, plus the query shape in brackets for searches, e.g. {@code page[name,term]}. */
+    public String getOperation() {
+        return operation;
+    }
+
+    /** Calls, including failed ones. */
+    public long getCount() {
+        return count;
+    }
+
+    /** Calls that threw. */
+    public long getErrors() {
+        return errors;
+    }
+
+    /** Rows returned by reads, or written by writes, over all calls. */
+    public long getRows() {
+        return rows;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP90Millis() {
+        return p90Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[count=%d, errors=%d, rows=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms]",
+                operation, count, errors, rows, meanMillis, p50Millis, p99Millis, maxMillis);
+    }
+}
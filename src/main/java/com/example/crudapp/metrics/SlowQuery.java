@@ -0,0 +1,41 @@
+package com.example.crudapp.metrics;
+
+/**
+ * One statement that took longer than the {@link SlowQueryLog} threshold.
+ */
+public class SlowQuery {
+    private final String sql;
+    private final String plan;
+    private final double durationMillis;
+    private final long timestamp;
+
+    SlowQuery(String sql, String plan, double durationMillis, long timestamp) {
+        this.sql = sql;
+        this.plan = plan;
+        this.durationMillis = durationMillis;
+        this.timestamp = timestamp;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /** SQLite's {@code EXPLAIN QUERY PLAN} output for the statement, one step per line. */
+    public String getPlan() {
+        return plan;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    /** When the statement finished, in milliseconds since the epoch. */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f ms: %s%n%s", durationMillis, sql, plan);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.crudapp.metrics;
+
+import com.example.crudapp.cache.LruCache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Logs statements that run longer than a threshold, with their query plan, and keeps the most recent
+ * ones for {@link DaoMetricsMXBean#getSlowQueries()}. Plans are looked up once per SQL text: the DAO's
+ * SQL is generated from the query shape, so the same few statements keep coming back.
+ */
+public class SlowQueryLog {
+    public static final int RECENT_QUERIES = 50;
+    private static final int CACHED_PLANS = 128;
+
+    private static final Logger LOG = Logger.getLogger(SlowQueryLog.class.getName());
+
+    private final LruCache<String, String> plans = new LruCache<>(CACHED_PLANS);
+    private final Deque<SlowQuery> recent = new ArrayDeque<>();
+    private final LongAdder slowQueries = new LongAdder();
+    private volatile long thresholdNanos;
+
+    /** @param thresholdMillis see {@link #setThresholdMillis} */
+    public SlowQueryLog(long thresholdMillis) {
+        setThresholdMillis(thresholdMillis);
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /** Statements running at least this long are logged; 0 turns the log off. */
+    public void setThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Slow query threshold must not be negative.");
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    /**
+     * Records one execution of {@code sql}. Cheap unless it was slow; {@code plan} is only called then,
+     * and only the first time a given statement is slow.
+     */
+    public void record(String sql, long nanos, Supplier<String> plan) {
+        long threshold = thresholdNanos;
+        if (threshold == 0 || nanos < threshold) {
+            return;
+        }
+        slowQueries.increment();
+        String steps = plans.getIfPresent(sql);
+        if (steps == null) {
+            steps = plan.get();
+            plans.put(sql, steps);
+        }
+        SlowQuery query = new SlowQuery(sql, steps, nanos / 1_000_000.0, System.currentTimeMillis());
+        synchronized (recent) {
+            if (recent.size() == RECENT_QUERIES) {
+                recent.removeFirst();
+            }
+            recent.addLast(query);
+        }
+        LOG.warning(() -> "Slow query: " + query);
+    }
+
+    /** Slow statements seen since the last {@link #reset()}, including ones no longer in {@link #getRecent()}. */
+    public long getCount() {
+        return slowQueries.sum();
+    }
+
+    /** The last {@link #RECENT_QUERIES} slow statements, oldest first. */
+    public List<SlowQuery> getRecent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public void reset() {
+        slowQueries.reset();
+        plans.invalidateAll();
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+}
@@ -3,34 +3,30 @@ package com.example.crudapp.model;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-public class Entity {
-    private UUID id;
-    private String name;
+public class Entity extends EntitySummary {
     private String description;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private long version;
 
     public Entity(UUID id, String name, String description, LocalDateTime createdAt, LocalDateTime updatedAt) {
-        this.id = id;
-        this.name = name;
+        super(id, name);
         this.description = description;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
     }
 
-    // Getters and Setters
-    public UUID getId() {
-        return id;
+    /** Copy constructor, so cached entities can be handed out without sharing mutable state. */
+    public Entity(Entity other) {
+        this(other.id, other.name, other.description, other.createdAt, other.updatedAt);
+        this.version = other.version;
     }
 
+    // Getters and Setters
     public void setId(UUID id) {
         this.id = id;
     }
 
-    public String getName() {
-        return name;
-    }
-
     public void setName(String name) {
         this.name = name;
     }
@@ -62,8 +58,15 @@ public class Entity {
         this.updatedAt = updatedAt;
     }
 
-    @Override
-    public String toString() {
-        return name; // Used for display in ListView
+    /**
+     * The stored row's version when this entity was read; every update increments it. An update based
+     * on an older version fails with {@link EntityConflictException}.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
     }
 }
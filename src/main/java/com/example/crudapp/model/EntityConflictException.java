@@ -0,0 +1,22 @@
+package com.example.crudapp.model;
+
+import java.util.Optional;
+
+/**
+ * Thrown when an update is based on an outdated {@link Entity#getVersion() version} of the row: someone
+ * else updated or deleted it after it was read. Carries the row as it is now, so the caller can show it
+ * or reapply the edit to it.
+ */
+public class EntityConflictException extends RuntimeException {
+    private final Entity current;
+
+    public EntityConflictException(String message, Entity current) {
+        super(message);
+        this.current = current;
+    }
+
+    /** The stored row, or empty if it has been deleted. */
+    public Optional<Entity> getCurrent() {
+        return Optional.ofNullable(current);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.crudapp.model;
+
+import java.util.UUID;
+
+/**
+ * The part of an {@link Entity} a list row shows: its id and name. List pages are fetched as summaries
+ * so they don't read, decode and keep descriptions and timestamps nobody looks at.
+ */
+public class EntitySummary {
+    UUID id;
+    String name;
+
+    public EntitySummary(UUID id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name; // Used for display in ListView
+    }
+}
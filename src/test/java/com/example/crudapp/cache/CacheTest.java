@@ -0,0 +1,93 @@
+package com.example.crudapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheTest {
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        Cache<Integer, String> cache = Cache.create(EvictionPolicy.LRU, 2);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertEquals("one", cache.getIfPresent(1));
+        cache.put(3, "three");
+
+        assertNull(cache.getIfPresent(2));
+        assertEquals("one", cache.getIfPresent(1));
+        assertEquals("three", cache.getIfPresent(3));
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, stats.getSize());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void testTinyLfuKeepsFrequentEntriesThroughAScan() {
+        Cache<Integer, Integer> cache = Cache.create(EvictionPolicy.TINY_LFU, 100);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.getIfPresent(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        // A one-off scan over many more keys than the cache holds.
+        for (int key = 1000; key < 2000; key++) {
+            if (cache.getIfPresent(key) == null) {
+                cache.put(key, key);
+            }
+        }
+
+        int retained = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.getIfPresent(key) != null) {
+                retained++;
+            }
+        }
+        assertEquals(50, retained);
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.stats().getEvictions() > 0);
+    }
+
+    @Test
+    void testLruLosesFrequentEntriesThroughAScan() {
+        Cache<Integer, Integer> cache = Cache.create(EvictionPolicy.LRU, 100);
+        for (int key = 0; key < 50; key++) {
+            cache.put(key, key);
+            cache.getIfPresent(key);
+        }
+        for (int key = 1000; key < 2000; key++) {
+            cache.put(key, key);
+        }
+        assertNull(cache.getIfPresent(0));
+    }
+
+    @Test
+    void testInvalidateAndZeroSize() {
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            Cache<String, String> cache = Cache.create(policy, 10);
+            cache.put("a", "1");
+            cache.put("b", "2");
+            cache.invalidate("a");
+            assertNull(cache.getIfPresent("a"), policy.name());
+            assertEquals("2", cache.getIfPresent("b"), policy.name());
+            cache.invalidateAll();
+            assertEquals(0, cache.size(), policy.name());
+
+            Cache<String, String> disabled = Cache.create(policy, 0);
+            disabled.put("a", "1");
+            assertNull(disabled.getIfPresent("a"), policy.name());
+        }
+    }
+
+    @Test
+    void testPolicyParsing() {
+        assertEquals(EvictionPolicy.LRU, EvictionPolicy.parse("lru"));
+        assertEquals(EvictionPolicy.TINY_LFU, EvictionPolicy.parse("TinyLFU"));
+        assertEquals(EvictionPolicy.TINY_LFU, EvictionPolicy.parse("w-tinylfu"));
+        assertThrows(IllegalArgumentException.class, () -> EvictionPolicy.parse("fifo"));
+    }
+}
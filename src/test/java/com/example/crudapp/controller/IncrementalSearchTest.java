@@ -0,0 +1,163 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.dao.AsyncEntityDAO;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IncrementalSearchTest {
+
+    @Mock
+    private EntityDAO entityDAO;
+
+    private final List<Runnable> timers = new ArrayList<>();
+    private final List<CompletableFuture<?>> timerHandles = new ArrayList<>();
+    private final List<Runnable> queries = new ArrayList<>();
+    private final List<IncrementalSearch.Result> results = new ArrayList<>();
+    private long now;
+    private IncrementalSearch search;
+
+    @BeforeEach
+    void setUp() {
+        IncrementalSearch.Timer timer = (task, delayMillis) -> {
+            CompletableFuture<Void> handle = new CompletableFuture<>();
+            timers.add(() -> {
+                if (!handle.isCancelled()) {
+                    task.run();
+                }
+            });
+            timerHandles.add(handle);
+            return handle;
+        };
+        search = new IncrementalSearch(new AsyncEntityDAO(entityDAO, queries::add), 2, timer, 200,
+                Runnable::run, results::add, () -> now);
+    }
+
+    private static SearchCriteria criteria(String term) {
+        return new SearchCriteria(term, "All", "name", true);
+    }
+
+    private static Entity entity(String name) {
+        return new Entity(UUID.randomUUID(), name, null, null, null);
+    }
+
+    private void fireTimers() {
+        List<Runnable> due = new ArrayList<>(timers);
+        timers.clear();
+        due.forEach(Runnable::run);
+    }
+
+    private void runQueries() {
+        while (!queries.isEmpty()) {
+            queries.remove(0).run();
+        }
+    }
+
+    @Test
+    void testKeystrokesAreDebounced() {
+        when(entityDAO.page(criteria("abc"), 0, IncrementalSearch.REFINE_LIMIT, true))
+                .thenReturn(new Page<>(List.of(entity("abc")), null, null, false, 1, true));
+
+        search.update(criteria("a"));
+        search.update(criteria("ab"));
+        now = 50;
+        search.update(criteria("abc"));
+        assertEquals(2, timerHandles.stream().filter(CompletableFuture::isCancelled).count());
+
+        now = 250;
+        fireTimers();
+        now = 300;
+        runQueries();
+
+        verify(entityDAO, times(1)).page(any(), anyInt(), anyInt(), anyBoolean());
+        assertEquals(1, results.size());
+        assertEquals("abc", results.get(0).getCriteria().getSearchTerm());
+        assertEquals(250, results.get(0).getLatencyNanos());
+    }
+
+    @Test
+    void testInputDuringQueryIsCoalesced() {
+        when(entityDAO.page(any(), eq(0), eq(IncrementalSearch.REFINE_LIMIT), eq(true)))
+                .thenReturn(new Page<>(new ArrayList<>(), null, null, false, 500, true));
+
+        search.update(criteria("a"));
+        fireTimers();
+        // The first query is still running while two more terms settle.
+        search.update(criteria("b"));
+        fireTimers();
+        search.update(criteria("c"));
+        fireTimers();
+        runQueries();
+
+        verify(entityDAO).page(criteria("a"), 0, IncrementalSearch.REFINE_LIMIT, true);
+        verify(entityDAO, never()).page(eq(criteria("b")), anyInt(), anyInt(), anyBoolean());
+        verify(entityDAO).page(criteria("c"), 0, IncrementalSearch.REFINE_LIMIT, true);
+        assertEquals(1, results.size());
+        assertEquals("c", results.get(0).getCriteria().getSearchTerm());
+    }
+
+    @Test
+    void testLongerTermIsRefinedInMemory() {
+        List<Entity> rows = List.of(entity("alpha"), entity("alpine"), entity("alps"));
+        when(entityDAO.page(criteria("al"), 0, IncrementalSearch.REFINE_LIMIT, true))
+                .thenReturn(new Page<>(rows, null, null, false, 3, true));
+        when(entityDAO.termMatcher("alp")).thenReturn(e -> e.getName().contains("alp"));
+        when(entityDAO.termMatcher("alpi")).thenReturn(e -> e.getName().contains("alpi"));
+
+        search.searchNow(criteria("al"));
+        runQueries();
+        search.searchNow(criteria("alp"));
+        runQueries();
+        search.searchNow(criteria("alpi"));
+        runQueries();
+
+        verify(entityDAO, times(1)).page(any(), anyInt(), anyInt(), anyBoolean());
+        assertEquals(3, results.size());
+        assertFalse(results.get(0).isRefined());
+        assertEquals(2, results.get(0).getItems().size()); // One page of the three rows.
+        assertTrue(results.get(1).isRefined());
+        assertEquals(3, results.get(1).getTotal());
+        assertEquals(1, results.get(2).getTotal());
+        assertEquals("alpine", results.get(2).getItems().get(0).getName());
+    }
+
+    @Test
+    void testIncompleteOrChangedResultsAreQueriedAgain() {
+        when(entityDAO.page(any(), eq(0), eq(IncrementalSearch.REFINE_LIMIT), eq(true)))
+                .thenReturn(new Page<>(new ArrayList<>(), null, null, false, IncrementalSearch.REFINE_LIMIT + 1, true));
+
+        search.searchNow(criteria("a"));
+        runQueries();
+        // Too many rows to have kept them all.
+        search.searchNow(criteria("ab"));
+        runQueries();
+
+        when(entityDAO.page(criteria("abc"), 0, IncrementalSearch.REFINE_LIMIT, true))
+                .thenReturn(new Page<>(new ArrayList<>(), null, null, false, 0, true));
+        search.searchNow(criteria("abc"));
+        runQueries();
+        // The data changed since.
+        search.invalidate();
+        search.searchNow(criteria("abcd"));
+        runQueries();
+
+        verify(entityDAO, times(4)).page(any(), anyInt(), anyInt(), anyBoolean());
+        verify(entityDAO, never()).termMatcher(any());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.dao.CountEstimate;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.KeysetPage;
+import com.example.crudapp.dao.Page;
+import com.example.crudapp.dao.PageCursor;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class KeysetPaginatorTest {
+
+    @Mock
+    private EntityDAO entityDAO;
+
+    private final PageCursor first = mock(PageCursor.class);
+    private final PageCursor last = mock(PageCursor.class);
+    private final SearchCriteria criteria = new SearchCriteria(null, null, "name", true);
+    private KeysetPaginator<Entity> paginator;
+
+    @BeforeEach
+    void setUp() {
+        paginator = KeysetPaginator.entities(entityDAO, 10);
+        when(entityDAO.seek(any(), any(), anyBoolean(), anyInt(), anyInt()))
+                .thenReturn(new KeysetPage<>(new ArrayList<>(), first, last, true));
+    }
+
+    @Test
+    void testNextPageSeeksFromPreviousPage() {
+        paginator.load(criteria, 0, 1000);
+        paginator.load(criteria, 1, 1000);
+
+        verify(entityDAO).seek(criteria, null, true, 0, 10);
+        verify(entityDAO).seek(criteria, last, true, 0, 10);
+    }
+
+    @Test
+    void testPreviousPageSeeksBackwardFromFollowingPage() {
+        paginator.load(criteria, 50, 1000);
+        paginator.load(criteria, 49, 1000);
+
+        verify(entityDAO).seek(criteria, first, false, 0, 10);
+    }
+
+    @Test
+    void testLastPageIsReadBackwardFromTheEnd() {
+        paginator.load(criteria, 99, 995);
+
+        verify(entityDAO).seek(criteria, null, false, 0, 5);
+    }
+
+    @Test
+    void testCriteriaChangeForgetsCursors() {
+        paginator.load(criteria, 0, 1000);
+        SearchCriteria other = new SearchCriteria("term", null, "name", true);
+        paginator.load(other, 1, 1000);
+
+        verify(entityDAO).seek(eq(other), isNull(), eq(true), eq(10), eq(10));
+    }
+
+    @Test
+    void testCountIsFetchedWithFirstPageAndReused() {
+        when(entityDAO.page(eq(criteria), anyInt(), eq(10), eq(true))).thenReturn(new Page<>(new ArrayList<>(), first, last, true, 95, true));
+
+        Page page = paginator.load(criteria, 0);
+        assertEquals(95, page.getTotal());
+        Page next = paginator.load(criteria, 1);
+        assertEquals(95, next.getTotal());
+        assertTrue(next.hasNext());
+        Page lastPage = paginator.load(criteria, 9);
+        assertFalse(lastPage.hasNext());
+
+        verify(entityDAO, times(1)).page(any(), anyInt(), anyInt(), anyBoolean());
+        verify(entityDAO).seek(criteria, last, true, 0, 10);
+        verify(entityDAO).seek(criteria, null, false, 0, 5);
+
+        paginator.invalidate();
+        paginator.load(criteria, 1);
+        verify(entityDAO).page(criteria, 1, 10, true);
+    }
+
+    @Test
+    void testEstimatedTotalIsRefinedAndNeverSeeksFromTheEnd() {
+        paginator.setEstimateLimit(100);
+        when(entityDAO.page(eq(criteria), eq(0), eq(10), eq(false))).thenReturn(new Page<>(new ArrayList<>(), first, last, true, 11, false));
+        when(entityDAO.estimateCount(criteria, 100)).thenReturn(new CountEstimate(5000, false));
+
+        Page<Entity> page = paginator.load(criteria, 0);
+        assertEquals(5000, page.getTotal());
+        assertFalse(page.isTotalExact());
+
+        // The estimated end is no place to seek from.
+        assertFalse(paginator.load(criteria, 499).isTotalExact());
+        verify(entityDAO).seek(criteria, last, true, 4980, 10);
+
+        assertFalse(paginator.refine(new SearchCriteria("other", null, "name", true), 4321));
+        assertTrue(paginator.refine(criteria, 4321));
+        Page<Entity> refined = paginator.load(criteria, 432);
+        assertEquals(4321, refined.getTotal());
+        assertTrue(refined.isTotalExact());
+        verify(entityDAO).seek(criteria, null, false, 0, 1);
+    }
+
+    @Test
+    void testSlowLoadDoesNotHoldUpNewerCriteria() throws Exception {
+        SearchCriteria stale = new SearchCriteria("stale", null, "name", true);
+        PageCursor staleLast = mock(PageCursor.class);
+        CountDownLatch inDao = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(entityDAO.seek(eq(stale), any(), anyBoolean(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            inDao.countDown();
+            release.await();
+            return new KeysetPage<>(new ArrayList<>(), first, staleLast, true);
+        });
+        CompletableFuture<?> slow = CompletableFuture.runAsync(() -> paginator.load(stale, 0, 1000));
+        assertTrue(inDao.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> paginator.load(criteria, 0, 1000));
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        // The stale page's boundaries were dropped, not mixed into the current criteria's.
+        paginator.load(criteria, 1, 1000);
+        verify(entityDAO).seek(criteria, last, true, 0, 10);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.crudapp.controller;
 
 import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.Page;
 import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.ButtonType;
@@ -36,25 +38,26 @@ public class MainControllerTest extends JavaFxTestBase {
     @InjectMocks
     private MainController controller;
 
-    private ListView<Entity> entityListView;
-    private ObservableList<Entity> entityObservableList;
+    private ListView<EntitySummary> entityListView;
+    private ObservableList<EntitySummary> entityObservableList;
 
     @BeforeEach
     public void setUp() {
         entityObservableList = FXCollections.observableArrayList();
         entityListView = new ListView<>(entityObservableList);
         controller.entityListView = entityListView;
+        controller.setExecutors(Runnable::run, Runnable::run);
     }
 
     @Test
     public void testInitialize() {
-        List<Entity> entities = new ArrayList<>();
-        entities.add(new Entity(UUID.randomUUID(), "Test Entity", "Description", null, null));
-        when(entityDAO.search(anyString(), anyString(), anyBoolean(), anyString(), anyInt(), anyInt())).thenReturn(entities);
+        List<EntitySummary> entities = new ArrayList<>();
+        entities.add(new EntitySummary(UUID.randomUUID(), "Test Entity"));
+        when(entityDAO.pageSummaries(any(), anyInt(), anyInt(), anyBoolean())).thenReturn(new Page<>(entities, null, null, false, 1, true));
 
         controller.initialize();
 
-        verify(entityDAO).search(anyString(), anyString(), anyBoolean(), anyString(), anyInt(), anyInt());
+        verify(entityDAO).pageSummaries(any(), anyInt(), anyInt(), anyBoolean());
         assertEquals(1, entityListView.getItems().size());
         assertEquals("Test Entity", entityListView.getItems().get(0).getName());
     }
@@ -68,12 +71,13 @@ public class MainControllerTest extends JavaFxTestBase {
         Dialog<ButtonType> dialog = mock(Dialog.class);
         when(dialog.showAndWait()).thenReturn(Optional.of(ButtonType.OK));
         when(dialogSupplier.get()).thenReturn(dialog);
+        when(entityDAO.pageSummaries(any(), anyInt(), anyInt(), anyBoolean())).thenReturn(new Page<>(new ArrayList<>(), null, null, false, 0, true));
         controller.setDialogSupplier(dialogSupplier);
 
         controller.handleDeleteEntity();
 
         verify(entityDAO).delete(entity.getId());
-        verify(entityDAO, times(2)).search(anyString(), anyString(), anyBoolean(), anyString(), anyInt(), anyInt());
+        verify(entityDAO).pageSummaries(any(), anyInt(), anyInt(), anyBoolean());
         assertTrue(entityListView.getItems().isEmpty());
     }
     
@@ -0,0 +1,134 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.dao.AsyncEntityDAO;
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.SearchCriteria;
+import com.example.crudapp.dao.TempDatabase;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntitySummary;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualEntityListTest {
+    private static final int ROWS = 1050;
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase();
+
+    private final List<Runnable> queries = new ArrayList<>();
+    private final SearchCriteria criteria = new SearchCriteria(null, "All", "name", true);
+    private VirtualEntityList list;
+
+    @BeforeEach
+    void setUp() {
+        EntityDAO dao = new EntityDAOImpl(db.pool());
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            entities.add(new Entity(null, String.format("Entity %04d", i), null, null, null));
+        }
+        dao.addAll(entities);
+
+        KeysetPaginator<EntitySummary> paginator = KeysetPaginator.summaries(dao, VirtualEntityList.BLOCK_SIZE);
+        list = new VirtualEntityList(new AsyncEntityDAO(dao, queries::add), paginator, criteria,
+                paginator.load(criteria, 0), Runnable::run);
+    }
+
+    private void runQueries() {
+        while (!queries.isEmpty()) {
+            queries.remove(0).run();
+        }
+    }
+
+    /** Reads every row of a block, as a ListView laying out those cells would. */
+    private void show(int block) {
+        for (int i = block * VirtualEntityList.BLOCK_SIZE; i < Math.min(ROWS, (block + 1) * VirtualEntityList.BLOCK_SIZE); i++) {
+            list.get(i);
+        }
+        runQueries();
+    }
+
+    @Test
+    void testRowsAreLoadedOnDemandAndAnnounced() {
+        assertEquals(ROWS, list.size());
+        assertEquals("Entity 0000", list.get(0).getName());
+
+        List<Integer> updated = new ArrayList<>();
+        list.addListener((ListChangeListener<EntitySummary>) change -> {
+            while (change.next()) {
+                if (change.wasUpdated()) {
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        updated.add(i);
+                    }
+                }
+            }
+        });
+
+        assertNull(list.get(512));
+        runQueries();
+
+        assertEquals("Entity 0512", list.get(512).getName());
+        assertTrue(updated.contains(512));
+        list.get(ROWS - 1);
+        runQueries();
+        assertEquals("Entity 1049", list.get(ROWS - 1).getName());
+        assertEquals(ROWS - 1, list.indexOf(list.get(ROWS - 1)));
+    }
+
+    @Test
+    void testNextBlockIsPrefetchedInTheScrollDirection() {
+        show(1);
+        assertTrue(list.isLoaded(200));
+        assertFalse(list.isLoaded(300));
+
+        show(8);
+        assertTrue(list.isLoaded(900));
+        assertFalse(list.isLoaded(600));
+
+        show(7);
+        assertTrue(list.isLoaded(600));
+    }
+
+    @Test
+    void testOnlyABoundedWindowOfBlocksIsKept() {
+        for (int block = 0; block * VirtualEntityList.BLOCK_SIZE < ROWS; block++) {
+            show(block);
+        }
+
+        int loaded = 0;
+        for (int i = 0; i < ROWS; i += VirtualEntityList.BLOCK_SIZE) {
+            loaded += list.isLoaded(i) ? 1 : 0;
+        }
+        assertTrue(loaded <= VirtualEntityList.MAX_BLOCKS);
+        assertFalse(list.isLoaded(0));
+        assertTrue(list.isLoaded(ROWS - 1));
+        assertEquals("Entity 0999", list.get(999).getName());
+    }
+
+    @Test
+    void testBlocksScrolledPastBeforeLoadingAreSkipped() {
+        list.get(300);
+        list.get(900);
+        runQueries();
+
+        assertFalse(list.isLoaded(300));
+        assertTrue(list.isLoaded(900));
+        assertNotNull(list.get(900));
+    }
+
+    @Test
+    void testLoadsForADisposedListAreDropped() {
+        list.get(500);
+        list.dispose();
+        runQueries();
+
+        assertFalse(list.isLoaded(500));
+    }
+}
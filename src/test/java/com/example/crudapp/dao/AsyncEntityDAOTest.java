@@ -0,0 +1,74 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncEntityDAOTest {
+
+    @Mock
+    private EntityDAO dao;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @Test
+    void testCallsRunOnTheExecutor() throws Exception {
+        when(dao.getCount("term", "All")).thenReturn(7);
+        AsyncEntityDAO async = new AsyncEntityDAO(dao, queued::add);
+
+        CompletableFuture<Integer> count = async.getCount("term", "All");
+        assertFalse(count.isDone());
+        verifyNoInteractions(dao);
+
+        queued.forEach(Runnable::run);
+        assertEquals(7, count.get());
+    }
+
+    @Test
+    void testExceptionsFailTheFuture() throws Exception {
+        Entity entity = new Entity(null, "x", null, null, null);
+        doThrow(new ValidationException("Name must be between 3 and 50 characters.")).when(dao).add(entity);
+        AsyncEntityDAO async = new AsyncEntityDAO(dao, Runnable::run);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> async.add(entity).get());
+        assertTrue(error.getCause() instanceof ValidationException);
+    }
+
+    @Test
+    void testNewerRequestCancelsStaleOne() throws Exception {
+        when(dao.getCount("new", null)).thenReturn(2);
+        AsyncEntityDAO async = new AsyncEntityDAO(dao, queued::add);
+
+        CompletableFuture<Integer> stale = async.latest("view", d -> d.getCount("old", null));
+        CompletableFuture<Integer> fresh = async.latest("view", d -> d.getCount("new", null));
+        CompletableFuture<Integer> other = async.latest("other", d -> d.getCount("new", null));
+        queued.forEach(Runnable::run);
+
+        assertTrue(stale.isCancelled());
+        assertEquals(2, fresh.get());
+        assertEquals(2, other.get());
+        verify(dao, never()).getCount("old", null);
+    }
+
+    @Test
+    void testOwnedExecutorRunsInBackground() throws Exception {
+        when(dao.getCount(null, null)).thenAnswer(invocation -> Thread.currentThread().getName().hashCode());
+        try (AsyncEntityDAO async = new AsyncEntityDAO(dao)) {
+            int threadHash = async.getCount(null, null).get(5, TimeUnit.SECONDS);
+            assertNotEquals(Thread.currentThread().getName().hashCode(), threadHash);
+        }
+    }
+}
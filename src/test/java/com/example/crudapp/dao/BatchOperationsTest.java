@@ -0,0 +1,94 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchOperationsTest {
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setBatchChunkSize(3));
+
+    private ConnectionPool pool;
+    private EntityDAO entityDAO;
+
+    @BeforeEach
+    void setUp() {
+        pool = db.pool();
+        entityDAO = new EntityDAOImpl(pool);
+    }
+
+    private static List<Entity> entities(int count) {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entities.add(new Entity(null, "Entity " + i, "Desc " + i, null, null));
+        }
+        return entities;
+    }
+
+    @Test
+    void testAddAllWritesEveryChunk() {
+        BatchResult result = entityDAO.addAll(entities(10));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(10, result.getSucceeded());
+        assertEquals(10, entityDAO.getCount(null, null));
+    }
+
+    @Test
+    void testAddAllReportsInvalidAndConflictingRows() {
+        Entity existing = new Entity(UUID.randomUUID(), "Existing", null, null, null);
+        entityDAO.add(existing);
+
+        List<Entity> batch = entities(7);
+        batch.set(1, new Entity(null, "x", null, null, null));
+        batch.set(4, new Entity(existing.getId(), "Duplicate id", null, null, null));
+
+        BatchResult result = entityDAO.addAll(batch);
+
+        assertEquals(5, result.getSucceeded());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertEquals("Entity name must be between 3 and 50 characters.", result.getFailures().get(0).getMessage());
+        assertEquals(4, result.getFailures().get(1).getIndex());
+        // The rest of the chunk holding the duplicate was still written.
+        assertEquals(6, entityDAO.getCount(null, null));
+        assertTrue(entityDAO.get(batch.get(3).getId()).isPresent());
+        assertTrue(entityDAO.get(batch.get(5).getId()).isPresent());
+    }
+
+    @Test
+    void testUpdateAllReportsMissingRows() {
+        List<Entity> batch = entities(4);
+        entityDAO.addAll(batch);
+        batch.forEach(entity -> entity.setName(entity.getName() + " updated"));
+        batch.add(new Entity(UUID.randomUUID(), "Never added", null, null, null));
+
+        BatchResult result = entityDAO.updateAll(batch);
+
+        assertEquals(4, result.getSucceeded());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(4, result.getFailures().get(0).getIndex());
+        assertEquals("Entity 0 updated", entityDAO.get(batch.get(0).getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testDeleteAll() {
+        List<Entity> batch = entities(5);
+        entityDAO.addAll(batch);
+
+        BatchResult result = entityDAO.deleteAll(Arrays.asList(batch.get(0).getId(), null, batch.get(2).getId()));
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(3, entityDAO.getCount(null, null));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.cache.Cache;
+import com.example.crudapp.cache.EvictionPolicy;
+import com.example.crudapp.cache.WeightedLruCache;
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingEntityDAOTest {
+
+    @Mock
+    private EntityDAO delegate;
+
+    private CachingEntityDAO dao;
+    private final UUID id = UUID.randomUUID();
+    private final Entity stored = new Entity(id, "Cached", "Description", LocalDateTime.now(), LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        dao = new CachingEntityDAO(delegate, Cache.create(EvictionPolicy.TINY_LFU, 100),
+                new WeightedLruCache<>(100_000, CachingEntityDAO::estimateBytes));
+    }
+
+    @Test
+    void testRepeatedGetIsServedFromCache() {
+        when(delegate.get(id)).thenReturn(Optional.of(stored));
+
+        assertEquals("Cached", dao.get(id).orElseThrow().getName());
+        assertEquals("Cached", dao.get(id).orElseThrow().getName());
+
+        verify(delegate, times(1)).get(id);
+        assertEquals(1, dao.getEntityCacheStats().getHits());
+        assertEquals(1, dao.getEntityCacheStats().getMisses());
+    }
+
+    @Test
+    void testReturnedEntitiesAreCopies() {
+        when(delegate.get(id)).thenReturn(Optional.of(stored));
+
+        dao.get(id).orElseThrow().setName("Changed by caller");
+
+        assertEquals("Cached", dao.get(id).orElseThrow().getName());
+        assertEquals("Cached", stored.getName());
+    }
+
+    @Test
+    void testMissingIdsAreCached() {
+        when(delegate.get(id)).thenReturn(Optional.empty());
+
+        assertTrue(dao.get(id).isEmpty());
+        assertTrue(dao.get(id).isEmpty());
+
+        verify(delegate, times(1)).get(id);
+    }
+
+    @Test
+    void testWritesInvalidate() throws Exception {
+        when(delegate.get(id)).thenReturn(Optional.empty(), Optional.of(stored), Optional.of(stored), Optional.empty());
+
+        assertTrue(dao.get(id).isEmpty());
+        dao.add(stored);
+        assertTrue(dao.get(id).isPresent());
+
+        dao.update(stored);
+        assertTrue(dao.get(id).isPresent());
+
+        dao.deleteAll(List.of(id));
+        assertTrue(dao.get(id).isEmpty());
+
+        verify(delegate, times(4)).get(id);
+    }
+
+    @Test
+    void testRepeatedNavigationIsServedFromCache() {
+        SearchCriteria criteria = new SearchCriteria("Alpha ", "All", "name", true);
+        KeysetPage<Entity> page = new KeysetPage<>(List.of(stored), null, null, false);
+        when(delegate.getCount("Alpha ", "All", null, null)).thenReturn(1);
+        when(delegate.seek(criteria, null, true, 0, 10)).thenReturn(page);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, dao.getCount("Alpha ", "All"));
+            assertEquals("Cached", dao.seek(criteria, null, true, 0, 10).getItems().get(0).getName());
+        }
+        // The same count spelled differently: untrimmed and capitalized term, "All" versus no filter.
+        assertEquals(1, dao.getCount("alpha", null));
+
+        verify(delegate, times(1)).getCount("Alpha ", "All", null, null);
+        verify(delegate, times(1)).seek(criteria, null, true, 0, 10);
+        assertEquals(5, dao.getQueryCacheStats().getHits());
+    }
+
+    @Test
+    void testWritesRetireCachedQueries() throws Exception {
+        when(delegate.getCount(null, null, null, null)).thenReturn(1, 2);
+
+        assertEquals(1, dao.getCount(null, null));
+        assertEquals(1, dao.getCount(null, null));
+        dao.add(new Entity(null, "Another", null, null, null));
+        assertEquals(2, dao.getCount(null, null));
+
+        verify(delegate, times(2)).getCount(null, null, null, null);
+    }
+
+    @Test
+    void testQueryCacheStaysWithinBudget() {
+        WeightedLruCache<QueryKey, Object> queries = new WeightedLruCache<>(5_000, CachingEntityDAO::estimateBytes);
+        dao = new CachingEntityDAO(delegate, Cache.create(EvictionPolicy.LRU, 10), queries);
+        when(delegate.search(any(), any(), anyBoolean(), any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(List.of(stored, stored, stored));
+
+        for (int page = 0; page < 50; page++) {
+            dao.search(null, "name", true, "All", page, 10);
+        }
+
+        assertTrue(queries.stats().getWeight() <= 5_000);
+        assertTrue(queries.stats().getEvictions() > 0);
+        assertTrue(queries.size() < 50);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactStorageTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 30, 15, 123_456_000);
+
+    @TempDir
+    Path tempDir;
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setBackfillBatchSize(4));
+
+    private final List<UUID> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // A database from before the compact layout: TEXT ids and ISO timestamps.
+        try (Connection conn = DriverManager.getConnection(db.url());
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE entities (id TEXT PRIMARY KEY, name TEXT NOT NULL, description TEXT, createdAt TEXT, updatedAt TEXT)");
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO entities VALUES (?, ?, 'imported', ?, ?)")) {
+                for (int i = 0; i < 30; i++) {
+                    UUID id = UUID.randomUUID();
+                    ids.add(id);
+                    pstmt.setString(1, id.toString());
+                    pstmt.setString(2, "Legacy " + i);
+                    pstmt.setString(3, CREATED.plusMinutes(i).toString());
+                    pstmt.setString(4, CREATED.plusMinutes(i).toString());
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static StorageLayout layout(ConnectionPool pool) throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            return StorageLayout.of(conn);
+        }
+    }
+
+    @Test
+    void testLegacyDatabaseIsConvertedWhileInUse() throws Exception {
+        Entity added = new Entity(null, "Added during copy", "fresh", null, null);
+        Entity fromOldPool = new Entity(null, "Added by the old pool", "", null, null);
+        try (ConnectionPool oldPool = db.open()) {
+            ConnectionPool pool = oldPool;
+            assertEquals(StorageLayout.LEGACY, layout(pool));
+            EntityDAO dao = new EntityDAOImpl(pool);
+
+            // Writes while the copy is still running go to the old table and are mirrored.
+            dao.add(added);
+            dao.add(new Entity(null, "Heron", "flagged during copy", null, null));
+            Entity renamed = dao.get(ids.get(29)).orElseThrow();
+            renamed.setName("Renamed legacy");
+            dao.update(renamed);
+            dao.delete(ids.get(0));
+            assertEquals(CREATED.plusMinutes(5), dao.get(ids.get(5)).orElseThrow().getCreatedAt());
+            // Another process, without the conversion functions, writes during the copy too.
+            try (Connection conn = DriverManager.getConnection(db.url());
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO entities (id, name, createdAt, updatedAt) "
+                        + "VALUES ('" + UUID.randomUUID() + "', 'Shell row 1', '" + CREATED + "', '" + CREATED + "')");
+                stmt.executeUpdate("UPDATE entities SET description = 'edited in the shell' WHERE id = '" + ids.get(3) + "'");
+            }
+
+            db.awaitBackfill(pool, new CompactStorage(), new FullTextIndex(), DerivedFlag.LETTERS_ONLY, new EntityCounts());
+
+            // A second instance swaps the table while this one is still open.
+            try (ConnectionPool newPool = db.open()) {
+                assertEquals(StorageLayout.COMPACT, layout(newPool));
+            }
+            dao.add(fromOldPool);
+            assertEquals("Legacy 8", dao.get(ids.get(8)).orElseThrow().getName());
+        }
+
+        try (ConnectionPool pool = db.open()) {
+            assertEquals(StorageLayout.COMPACT, layout(pool));
+            try (Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM entities "
+                        + "WHERE typeof(id) != 'blob' OR typeof(createdAt) != 'integer' OR typeof(updatedAt) != 'integer'")) {
+                    assertEquals(0, rs.getInt(1));
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE name LIKE 'entities_v2%'")) {
+                    assertEquals(0, rs.getInt(1));
+                }
+            }
+
+            EntityDAO dao = new EntityDAOImpl(pool);
+            assertEquals(33, dao.getCount(null, null));
+            assertEquals("edited in the shell", dao.get(ids.get(3)).orElseThrow().getDescription());
+            assertEquals(1, dao.getCount("shell row", null));
+            assertEquals(fromOldPool.getCreatedAt(), dao.get(fromOldPool.getId()).orElseThrow().getCreatedAt());
+            // The copy carried the derived flag, including for rows written while it ran.
+            assertEquals(1, dao.getCount(null, "Letters Only"));
+            assertFalse(dao.get(ids.get(0)).isPresent());
+            assertEquals("Renamed legacy", dao.get(ids.get(29)).orElseThrow().getName());
+            Entity copied = dao.get(ids.get(7)).orElseThrow();
+            assertEquals("Legacy 7", copied.getName());
+            assertEquals(CREATED.plusMinutes(7), copied.getCreatedAt());
+            assertEquals(added.getCreatedAt(), dao.get(added.getId()).orElseThrow().getCreatedAt());
+
+            // The full-text triggers moved to the new table.
+            assertEquals(1, dao.getCount("renamed", null));
+            Entity later = new Entity(null, "Pelican", "added after the swap", null, null);
+            dao.add(later);
+            assertEquals(1, dao.getCount("pelican", null));
+            assertEquals(2, dao.getCount(null, "Letters Only"));
+            assertEquals(1, dao.search(null, "All", true, "createdAt", 0, 5, later.getCreatedAt(), null).size());
+            Optional<Entity> found = dao.get(later.getId());
+            assertTrue(found.isPresent());
+        }
+    }
+
+    @Test
+    void testNewDatabaseStartsCompact() throws SQLException {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl("jdbc:sqlite:" + tempDir.resolve("new.db"));
+        try (ConnectionPool pool = Database.createPool(config)) {
+            assertEquals(StorageLayout.COMPACT, layout(pool));
+        }
+    }
+
+    @Test
+    void testEncodingsRoundTripAndSortAlike() {
+        UUID low = UUID.fromString("0fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("f0000000-0000-0000-0000-000000000000");
+        assertEquals(low, StorageLayout.fromBytes(StorageLayout.toBytes(low)));
+        // Unsigned byte order, as SQLite compares BLOBs, matches the text order.
+        assertTrue(Byte.toUnsignedInt(StorageLayout.toBytes(low)[0]) < Byte.toUnsignedInt(StorageLayout.toBytes(high)[0]));
+        assertTrue(low.toString().compareTo(high.toString()) < 0);
+
+        LocalDateTime before1970 = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000);
+        assertEquals(-1, StorageLayout.toMicros(before1970));
+        assertEquals(before1970, StorageLayout.fromMicros(-1));
+        assertEquals(CREATED, StorageLayout.readTimestamp(StorageLayout.toMicros(CREATED)));
+        assertEquals(CREATED, StorageLayout.readTimestamp(CREATED.toString()));
+    }
+}
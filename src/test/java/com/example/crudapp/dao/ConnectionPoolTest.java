@@ -0,0 +1,148 @@
+package com.example.crudapp.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> {
+        config.setMaxPoolSize(2);
+        config.setAcquireTimeoutMillis(100);
+    });
+
+    private final AtomicInteger initializations = new AtomicInteger();
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = db.closeAfterTest(new ConnectionPool(db.config(), conn -> initializations.incrementAndGet()));
+    }
+
+    @Test
+    void testPhysicalConnectionIsReused() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection physical = first.unwrap(org.sqlite.SQLiteConnection.class);
+        first.close();
+
+        try (Connection second = pool.getConnection()) {
+            assertSame(physical, second.unwrap(org.sqlite.SQLiteConnection.class));
+        }
+        assertEquals(1, initializations.get());
+        assertEquals(1, pool.getStats().getCreated());
+        assertEquals(2, pool.getStats().getAcquisitions());
+    }
+
+    @Test
+    void testClosedProxyCannotBeUsed() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        conn.close(); // idempotent
+        assertEquals(0, pool.getStats().getActive());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    void testPoolIsBounded() throws SQLException {
+        try (Connection a = pool.getConnection();
+             Connection b = pool.getConnection()) {
+            assertEquals(2, pool.getStats().getActive());
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        }
+        assertEquals(1, pool.getStats().getTimeouts());
+        try (Connection c = pool.getConnection()) {
+            assertNotNull(c);
+        }
+    }
+
+    @Test
+    void testUncommittedWorkIsRolledBackOnReturn() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE t (v INTEGER)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO t VALUES (1)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(conn.getAutoCommit());
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testBrokenConnectionIsDiscarded() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.unwrap(org.sqlite.SQLiteConnection.class).close();
+        conn.close();
+
+        try (Connection fresh = pool.getConnection()) {
+            assertFalse(fresh.isClosed());
+        }
+        assertEquals(1, pool.getStats().getDiscarded());
+        assertEquals(2, pool.getStats().getCreated());
+    }
+
+    @Test
+    void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT ? + 1")) {
+                pstmt.setInt(1, i);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    assertEquals(i + 1, rs.getInt(1));
+                }
+            }
+        }
+        assertEquals(1, pool.getStats().getStatementCacheMisses());
+        assertEquals(2, pool.getStats().getStatementCacheHits());
+    }
+
+    @Test
+    void testNestedUseOfSameSqlGetsSeparateStatement() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement("SELECT 1");
+             PreparedStatement inner = conn.prepareStatement("SELECT 1")) {
+            assertNotSame(outer, inner);
+            try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                assertTrue(a.next());
+                assertTrue(b.next());
+            }
+        }
+    }
+
+    @Test
+    void testStatementCacheEvictsLeastRecentlyUsed() throws SQLException {
+        DatabaseConfig config = db.config();
+        config.setStatementCacheSize(2);
+        try (ConnectionPool small = new ConnectionPool(config, null);
+             Connection conn = small.getConnection()) {
+            for (String sql : new String[]{"SELECT 1", "SELECT 2", "SELECT 1", "SELECT 3", "SELECT 1", "SELECT 2"}) {
+                conn.prepareStatement(sql).close();
+            }
+            PoolStats stats = small.getStats();
+            assertEquals(2, stats.getStatementCacheHits());
+            assertEquals(4, stats.getStatementCacheMisses());
+            assertEquals(2, stats.getStatementCacheEvictions());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DerivedFlagTest {
+
+    private static final List<String> NAMES = List.of(
+            "Apple", "apple pie", "R2D2", "Éclair", "MiXeD", "dash-ed", "x", "Tab\there", "Zebra", "naïve", "Q");
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setBackfillBatchSize(4));
+
+    private ConnectionPool pool;
+    private EntityDAO entityDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // A database created before the flag existed, so the backfill has to classify every row.
+        try (Connection conn = DriverManager.getConnection(db.url());
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE entities (id TEXT PRIMARY KEY, name TEXT NOT NULL, description TEXT, createdAt TEXT, updatedAt TEXT)");
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO entities VALUES (?, ?, 'imported', '2024-01-01T00:00:00', '2024-01-01T00:00:00')")) {
+                for (String name : NAMES) {
+                    pstmt.setString(1, UUID.randomUUID().toString());
+                    pstmt.setString(2, name);
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+
+        pool = db.pool();
+        entityDAO = new EntityDAOImpl(pool);
+        db.awaitBackfill(DerivedFlag.LETTERS_ONLY, new CompactStorage());
+    }
+
+    /** Rows whose stored flag disagrees with the SQL expression it replaces. */
+    private int mismatches() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM entities WHERE letters_only <> ("
+                     + DerivedFlag.LETTERS_ONLY.getExpression() + ")")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testBackfillMatchesGlob() throws SQLException {
+        assertEquals(0, mismatches());
+        assertEquals(5, entityDAO.getCount(null, "Letters Only"));
+        assertEquals(List.of("Apple", "MiXeD", "Q", "x", "Zebra"),
+                entityDAO.search(null, "name", true, "Letters Only", 0, 10).stream().map(Entity::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testAddAndUpdateMaintainTheFlag() throws Exception {
+        Entity entity = new Entity(null, "Kiwi", "fresh", null, null);
+        entityDAO.add(entity);
+        assertEquals(6, entityDAO.getCount(null, "Letters Only"));
+
+        entity.setName("Kiwi 2");
+        entityDAO.update(entity);
+        assertEquals(5, entityDAO.getCount(null, "Letters Only"));
+
+        entityDAO.addAll(List.of(new Entity(null, "Fig", "", null, null), new Entity(null, "Fig 2", "", null, null)));
+        assertEquals(6, entityDAO.getCount(null, "Letters Only"));
+        assertEquals(0, mismatches());
+    }
+
+    @Test
+    void testFilteredQueriesReadThePartialIndex() throws SQLException {
+        SearchQuery query = new SearchQuery(new SearchCriteria(null, "Letters Only", "name", true), false);
+        try (Connection conn = pool.getConnection()) {
+            for (String sql : List.of(query.countSql(), query.selectSql())) {
+                QueryPlan plan = QueryPlan.explain(conn, sql);
+                assertTrue(plan.toString().contains("idx_entities_letters_only_"), sql + "\n" + plan);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityCountsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(1969, 12, 28, 0, 0);
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setBackfillBatchSize(7));
+
+    private final List<UUID> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // A legacy database: the counters are backfilled while the compact copy is running.
+        try (Connection conn = DriverManager.getConnection(db.url());
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE entities (id TEXT PRIMARY KEY, name TEXT NOT NULL, description TEXT, createdAt TEXT, updatedAt TEXT)");
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO entities VALUES (?, ?, 'imported', ?, ?)")) {
+                for (int i = 0; i < 60; i++) {
+                    UUID id = UUID.randomUUID();
+                    ids.add(id);
+                    // Every 7 hours across the turn of 1970, so some days are partly before the epoch.
+                    String created = i == 59 ? null : START.plusHours(7L * i).toString();
+                    pstmt.setString(1, id.toString());
+                    pstmt.setString(2, i % 3 == 0 ? "Plain" + (char) ('a' + i % 26) : "Item " + i);
+                    pstmt.setString(3, created);
+                    pstmt.setString(4, created);
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /** The count the SQL filter gives, to compare the counters against. */
+    private static int scan(ConnectionPool pool, String filter, LocalDateTime from, LocalDateTime to) throws SQLException {
+        SearchCriteria criteria = new SearchCriteria(null, filter, null, true, from, to);
+        try (Connection conn = pool.getConnection()) {
+            SearchQuery query = new SearchQuery(criteria, false, StorageLayout.of(conn), Set.of());
+            try (PreparedStatement pstmt = conn.prepareStatement(query.countSql())) {
+                query.bind(pstmt);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+    }
+
+    private static void assertCountsMatch(ConnectionPool pool) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT SUM(total) FROM entity_counts")) {
+            assertEquals(scan(pool, null, null, null), rs.getInt(1));
+        }
+        EntityDAO dao = new EntityDAOImpl(pool);
+        LocalDate first = START.toLocalDate();
+        List<LocalDateTime[]> ranges = new ArrayList<>();
+        ranges.add(new LocalDateTime[]{null, null});
+        ranges.add(new LocalDateTime[]{first.plusDays(3).atStartOfDay(), null});
+        ranges.add(new LocalDateTime[]{null, first.plusDays(9).atTime(LocalTime.MAX)});
+        ranges.add(new LocalDateTime[]{first.plusDays(2).atStartOfDay(), first.plusDays(12).atTime(LocalTime.MAX)});
+        ranges.add(new LocalDateTime[]{first.plusDays(2).atTime(9, 30), first.plusDays(12).atTime(4, 0)});
+        ranges.add(new LocalDateTime[]{first.plusDays(5).atTime(13, 0), first.plusDays(6).atTime(2, 0)});
+        ranges.add(new LocalDateTime[]{first.plusDays(1).atTime(20, 0), null});
+        ranges.add(new LocalDateTime[]{null, first.plusDays(4).atTime(20, 0)});
+        for (String filter : new String[]{"All", "Letters Only"}) {
+            for (LocalDateTime[] range : ranges) {
+                assertEquals(scan(pool, filter, range[0], range[1]), dao.getCount(null, filter, range[0], range[1]),
+                        filter + " " + range[0] + " - " + range[1]);
+                SearchCriteria criteria = new SearchCriteria(null, filter, "createdAt", true, range[0], range[1]);
+                assertEquals(scan(pool, filter, range[0], range[1]), dao.page(criteria, 0, 5, true).getTotal());
+            }
+        }
+    }
+
+    @Test
+    void testCountsFollowWritesAcrossTheLayoutSwap() throws Exception {
+        try (ConnectionPool pool = db.open()) {
+            EntityDAO dao = new EntityDAOImpl(pool);
+            // Written while the backfills may still be running.
+            dao.add(new Entity(null, "Fresh", "added", null, null));
+            dao.delete(ids.get(3));
+            Entity renamed = dao.get(ids.get(4)).orElseThrow();
+            renamed.setName("Renamed");
+            dao.update(renamed);
+            db.awaitBackfill(pool, new EntityCounts(), new CompactStorage(), DerivedFlag.LETTERS_ONLY);
+
+            try (Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                // Moving a row to another day moves its count.
+                stmt.executeUpdate("UPDATE entities SET createdAt = '1970-01-08T12:00:00' WHERE id = '" + ids.get(10) + "'");
+            }
+            assertCountsMatch(pool);
+            assertEquals(60, dao.getCount(null, null));
+            // Nothing to search, so even a tiny limit gets the exact count.
+            CountEstimate estimate = dao.estimateCount(new SearchCriteria(null, "All", "name", true), 5);
+            assertTrue(estimate.isExact());
+            assertEquals(60, estimate.getCount());
+        }
+
+        try (ConnectionPool pool = db.open()) {
+            try (Connection conn = pool.getConnection()) {
+                assertEquals(StorageLayout.COMPACT, StorageLayout.of(conn));
+            }
+            EntityDAO dao = new EntityDAOImpl(pool);
+            dao.add(new Entity(null, "Later", "after the swap", null, null));
+            dao.delete(ids.get(20));
+            assertEquals(60, dao.getCount(null, null));
+            assertCountsMatch(pool);
+        }
+    }
+}
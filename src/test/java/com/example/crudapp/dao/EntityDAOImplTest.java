@@ -1,6 +1,8 @@
 package com.example.crudapp.dao;
 
 import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.EntityConflictException;
+import com.example.crudapp.model.EntitySummary;
 import com.example.crudapp.model.ValidationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +12,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -91,6 +94,64 @@ public class EntityDAOImplTest {
         assertTrue(updatedEntity.getUpdatedAt().isAfter(updatedEntity.getCreatedAt()));
     }
 
+    @Test
+    void testStaleUpdateIsRejectedWithTheCurrentRow() {
+        Entity entity = createAndAddEntity("Original Name", "Original Desc");
+        assertEquals(0, entity.getVersion());
+        Entity stale = new Entity(entity);
+
+        entity.setName("First Edit");
+        entityDAO.update(entity);
+        assertEquals(1, entity.getVersion());
+        assertEquals(1, entityDAO.get(entity.getId()).orElseThrow().getVersion());
+
+        stale.setName("Second Edit");
+        LocalDateTime readAt = stale.getUpdatedAt();
+        EntityConflictException e = assertThrows(EntityConflictException.class, () -> entityDAO.update(stale));
+        // The rejected copy still says what was read.
+        assertEquals(readAt, stale.getUpdatedAt());
+        assertEquals(0, stale.getVersion());
+        Entity current = e.getCurrent().orElseThrow();
+        assertEquals("First Edit", current.getName());
+        assertEquals(1, current.getVersion());
+        assertEquals("First Edit", entityDAO.get(entity.getId()).orElseThrow().getName());
+
+        // Reapplied to the current row, the edit goes through.
+        current.setName("Second Edit");
+        entityDAO.update(current);
+        assertEquals(2, entityDAO.get(entity.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testUpdateOfADeletedEntityConflicts() {
+        Entity entity = createAndAddEntity("Gone", "Desc");
+        entityDAO.delete(entity.getId());
+        EntityConflictException e = assertThrows(EntityConflictException.class, () -> entityDAO.update(entity));
+        assertFalse(e.getCurrent().isPresent());
+    }
+
+    @Test
+    void testBatchUpdateReportsStaleRows() {
+        Entity fresh = createAndAddEntity("Fresh", "Desc");
+        Entity edited = createAndAddEntity("Edited", "Desc");
+        Entity stale = new Entity(edited);
+        edited.setDescription("Changed elsewhere");
+        entityDAO.update(edited);
+
+        fresh.setName("Fresh 2");
+        stale.setName("Stale 2");
+        LocalDateTime staleReadAt = stale.getUpdatedAt();
+        BatchResult result = entityDAO.updateAll(List.of(fresh, stale));
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertEquals(1, fresh.getVersion());
+        assertEquals(0, stale.getVersion());
+        assertEquals(entityDAO.get(fresh.getId()).orElseThrow().getUpdatedAt(), fresh.getUpdatedAt());
+        assertEquals(staleReadAt, stale.getUpdatedAt());
+        assertEquals("Edited", entityDAO.get(edited.getId()).orElseThrow().getName());
+        assertEquals(1, entityDAO.get(fresh.getId()).orElseThrow().getVersion());
+    }
+
     @Test
     void testDeleteEntity() {
         Entity entity = createAndAddEntity("To Be Deleted", "Desc");
@@ -188,6 +249,177 @@ public class EntityDAOImplTest {
     }
 
 
+    @Test
+    void testSeekWalksPagesForwardAndBackward() {
+        for (String name : new String[]{"Delta", "alpha", "Charlie", "bravo", "Echo", "Alpha"}) {
+            createAndAddEntity(name, "Desc");
+        }
+        SearchCriteria criteria = new SearchCriteria(null, null, "name", true);
+
+        KeysetPage<Entity> first = entityDAO.seek(criteria, null, true, 0, 2);
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.hasMore());
+        assertTrue(first.getItems().get(0).getName().equalsIgnoreCase("alpha"));
+        assertTrue(first.getItems().get(1).getName().equalsIgnoreCase("alpha"));
+
+        KeysetPage<Entity> second = entityDAO.seek(criteria, first.getLast(), true, 0, 2);
+        assertEquals("bravo", second.getItems().get(0).getName());
+        assertEquals("Charlie", second.getItems().get(1).getName());
+
+        KeysetPage<Entity> third = entityDAO.seek(criteria, second.getLast(), true, 0, 2);
+        assertEquals("Delta", third.getItems().get(0).getName());
+        assertEquals("Echo", third.getItems().get(1).getName());
+        assertFalse(third.hasMore());
+
+        KeysetPage<Entity> back = entityDAO.seek(criteria, third.getFirst(), false, 0, 2);
+        assertEquals("bravo", back.getItems().get(0).getName());
+        assertEquals("Charlie", back.getItems().get(1).getName());
+        assertTrue(back.hasMore());
+
+        KeysetPage<Entity> last = entityDAO.seek(criteria, null, false, 0, 1);
+        assertEquals("Echo", last.getItems().get(0).getName());
+
+        KeysetPage<Entity> skipped = entityDAO.seek(criteria, first.getLast(), true, 2, 2);
+        assertEquals("Delta", skipped.getItems().get(0).getName());
+    }
+
+    @Test
+    void testSeekDescendingMatchesOffsetSearch() {
+        for (String name : new String[]{"Apple", "Banana", "Cherry", "Damson", "Elder"}) {
+            createAndAddEntity(name, "Fruit");
+        }
+        SearchCriteria criteria = new SearchCriteria("Fruit", null, "name", false);
+
+        KeysetPage<Entity> page = entityDAO.seek(criteria, null, true, 0, 2);
+        List<Entity> offsetPage = entityDAO.search("Fruit", "name", false, null, 1, 2);
+        KeysetPage<Entity> next = entityDAO.seek(criteria, page.getLast(), true, 0, 2);
+        assertEquals(offsetPage.get(0).getName(), next.getItems().get(0).getName());
+        assertEquals(offsetPage.get(1).getName(), next.getItems().get(1).getName());
+        assertEquals("Cherry", next.getItems().get(0).getName());
+
+        KeysetPage<Entity> empty = entityDAO.seek(new SearchCriteria("nothing", null, "name", true), null, true, 0, 2);
+        assertTrue(empty.getItems().isEmpty());
+        assertNull(empty.getFirst());
+    }
+
+    @Test
+    void testPageReturnsRowsAndTotalFromOneQuery() {
+        for (String name : new String[]{"Apple", "Banana", "Cherry", "Damson", "Elder"}) {
+            createAndAddEntity(name, "Fruit");
+        }
+        createAndAddEntity("Carrot", "Vegetable");
+        SearchCriteria criteria = new SearchCriteria("Fruit", null, "name", true);
+
+        Page<Entity> first = entityDAO.page(criteria, 0, 2, true);
+        assertEquals(5, first.getTotal());
+        assertTrue(first.isTotalExact());
+        assertTrue(first.hasNext());
+        assertEquals("Apple", first.getItems().get(0).getName());
+
+        Page<Entity> last = entityDAO.page(criteria, 2, 2, true);
+        assertEquals(5, last.getTotal());
+        assertFalse(last.hasNext());
+        assertEquals("Elder", last.getItems().get(0).getName());
+
+        // The next page continues from a page fetched this way.
+        KeysetPage<Entity> second = entityDAO.seek(criteria, first.getLast(), true, 0, 2);
+        assertEquals("Cherry", second.getItems().get(0).getName());
+
+        Page<Entity> beyond = entityDAO.page(criteria, 5, 2, true);
+        assertTrue(beyond.getItems().isEmpty());
+        assertEquals(5, beyond.getTotal());
+    }
+
+    @Test
+    void testEstimateCountStopsAtTheLimit() {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            entities.add(new Entity(null, (i % 2 == 0 ? "Match " : "Other ") + i, "", null, null));
+        }
+        assertEquals(400, entityDAO.addAll(entities).getSucceeded());
+        SearchCriteria criteria = new SearchCriteria("match", null, "relevance", true);
+
+        CountEstimate capped = entityDAO.estimateCount(criteria, 50);
+        assertFalse(capped.isExact());
+        // Half of the rows match, evenly spread, so 51 matches cover about a quarter of the table.
+        assertTrue(capped.getCount() > 180 && capped.getCount() < 220, capped.toString());
+
+        CountEstimate exact = entityDAO.estimateCount(criteria, 1000);
+        assertTrue(exact.isExact());
+        assertEquals(200, exact.getCount());
+    }
+
+    @Test
+    void testPageWithoutExactCountReportsLowerBound() {
+        for (String name : new String[]{"Apple", "Banana", "Cherry", "Damson", "Elder"}) {
+            createAndAddEntity(name, "Fruit");
+        }
+        SearchCriteria criteria = new SearchCriteria(null, null, "name", true);
+
+        Page<Entity> first = entityDAO.page(criteria, 0, 2, false);
+        assertFalse(first.isTotalExact());
+        assertEquals(3, first.getTotal());
+        assertTrue(first.hasNext());
+
+        Page<Entity> last = entityDAO.page(criteria, 2, 2, false);
+        assertEquals(5, last.getTotal());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void testSummariesMatchFullRows() {
+        for (String name : new String[]{"Apple", "Banana", "Cherry", "Damson", "Elder"}) {
+            createAndAddEntity(name, "Fruit");
+        }
+        // By date the sort key is not one of the summary's columns.
+        for (String sortBy : new String[]{"name", "createdAt"}) {
+            SearchCriteria criteria = new SearchCriteria("Fruit", null, sortBy, false);
+
+            Page<Entity> full = entityDAO.page(criteria, 0, 2, true);
+            Page<EntitySummary> summaries = entityDAO.pageSummaries(criteria, 0, 2, true);
+            assertEquals(full.getTotal(), summaries.getTotal());
+            assertEquals(full.hasNext(), summaries.hasNext());
+            assertEquals(full.getLast(), summaries.getLast());
+            for (int i = 0; i < full.getItems().size(); i++) {
+                assertEquals(full.getItems().get(i).getId(), summaries.getItems().get(i).getId());
+                assertEquals(full.getItems().get(i).getName(), summaries.getItems().get(i).getName());
+            }
+
+            KeysetPage<EntitySummary> next = entityDAO.seekSummaries(criteria, summaries.getLast(), true, 0, 2);
+            KeysetPage<Entity> fullNext = entityDAO.seek(criteria, full.getLast(), true, 0, 2);
+            assertEquals(fullNext.getItems().get(0).getId(), next.getItems().get(0).getId());
+            assertEquals(fullNext.getFirst(), next.getFirst());
+        }
+    }
+
+    @Test
+    void testSearchWithRegexFilter() throws ValidationException {
+        for (String name : new String[]{"Order 17", "Order 7b", "Invoice 17", "order 23"}) {
+            entityDAO.add(new Entity(UUID.randomUUID(), name, "", null, null));
+        }
+
+        SearchCriteria criteria = new SearchCriteria(null, "All", "name", true, null, null, "^Order [0-9]+$");
+        List<Entity> found = entityDAO.search(criteria, 0, 10);
+        assertEquals(1, found.size());
+        assertEquals("Order 17", found.get(0).getName());
+
+        SearchCriteria withTerm = new SearchCriteria("17", "All", "name", true, null, null, "^[A-Z]");
+        assertEquals(2, entityDAO.search(withTerm, 0, 10).size());
+        assertEquals(2, entityDAO.page(withTerm, 0, 10, true).getTotal());
+
+        SearchCriteria invalid = new SearchCriteria(null, "All", "name", true, null, null, "([a-z]");
+        assertThrows(IllegalArgumentException.class, () -> entityDAO.search(invalid, 0, 10));
+    }
+
+    @Test
+    void testPathologicalRegexFailsInsteadOfHanging() throws ValidationException {
+        entityDAO.add(new Entity(UUID.randomUUID(), "a".repeat(40), "", null, null));
+
+        SearchCriteria criteria = new SearchCriteria(null, "All", "name", true, null, null, "(a+?)+?b");
+        RuntimeException error = assertThrows(RuntimeException.class, () -> entityDAO.search(criteria, 0, 10));
+        assertTrue(error.getCause().getMessage().contains("REGEXP"));
+    }
+
     @Test
     void testModelMethods() {
         UUID id = UUID.randomUUID();
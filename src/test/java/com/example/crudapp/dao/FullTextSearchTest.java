@@ -0,0 +1,105 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FullTextSearchTest {
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setBackfillBatchSize(4));
+
+    private ConnectionPool pool;
+    private EntityDAO entityDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // A database created before the full-text index existed.
+        try (Connection conn = DriverManager.getConnection(db.url());
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE entities (id TEXT PRIMARY KEY, name TEXT NOT NULL, description TEXT, createdAt TEXT, updatedAt TEXT)");
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO entities VALUES (?, ?, ?, '2024-01-01T00:00:00', '2024-01-01T00:00:00')")) {
+                for (int i = 0; i < 25; i++) {
+                    pstmt.setString(1, UUID.randomUUID().toString());
+                    pstmt.setString(2, "Legacy " + i);
+                    pstmt.setString(3, i % 5 == 0 ? "imported orange crate" : "imported");
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+
+        pool = db.pool();
+        entityDAO = new EntityDAOImpl(pool);
+        db.awaitBackfill(new FullTextIndex());
+    }
+
+    @Test
+    void testBackfillIndexesExistingRows() {
+        assertEquals(25, entityDAO.getCount("imported", null));
+        assertEquals(5, entityDAO.getCount("orange", null));
+        assertEquals(5, entityDAO.getCount("ora", null));
+    }
+
+    @Test
+    void testIndexFollowsAddUpdateAndDelete() {
+        Entity entity = new Entity(UUID.randomUUID(), "Zebra crossing", "striped", null, null);
+        entityDAO.add(entity);
+        assertEquals(1, entityDAO.getCount("zebra", null));
+
+        entity.setName("Pelican crossing");
+        entityDAO.update(entity);
+        assertEquals(0, entityDAO.getCount("zebra", null));
+        assertEquals(1, entityDAO.getCount("pelican", null));
+
+        entityDAO.delete(entity.getId());
+        assertEquals(0, entityDAO.getCount("pelican", null));
+        assertEquals(0, entityDAO.getCount("crossing", null));
+    }
+
+    @Test
+    void testRelevanceRankingPagesLikeOtherSorts() {
+        entityDAO.add(new Entity(UUID.randomUUID(), "Kiwi", "green fruit", null, null));
+        entityDAO.add(new Entity(UUID.randomUUID(), "Kiwi kiwi kiwi", "kiwi fruit, kiwi flavour", null, null));
+
+        List<Entity> ranked = entityDAO.search("kiwi", "relevance", true, null, 0, 10);
+        assertEquals(2, ranked.size());
+        assertEquals("Kiwi kiwi kiwi", ranked.get(0).getName());
+
+        SearchCriteria criteria = new SearchCriteria("kiwi", null, "relevance", true);
+        KeysetPage<Entity> first = entityDAO.seek(criteria, null, true, 0, 1);
+        KeysetPage<Entity> second = entityDAO.seek(criteria, first.getLast(), true, 0, 1);
+        assertEquals("Kiwi kiwi kiwi", first.getItems().get(0).getName());
+        assertEquals("Kiwi", second.getItems().get(0).getName());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void testTermMatcherAgreesWithSearch() {
+        entityDAO.add(new Entity(UUID.randomUUID(), "Café crème", "Orangery special", null, null));
+        List<Entity> all = entityDAO.getAll();
+
+        for (String term : new String[]{"imp", "orange cr", "Legacy 1", "cafe", "CRÈME", "orangery-sp"}) {
+            Predicate<Entity> matcher = entityDAO.termMatcher(term);
+            List<UUID> expected = entityDAO.search(term, "name", true, null, 0, 100).stream()
+                    .map(Entity::getId).sorted().collect(Collectors.toList());
+            List<UUID> matched = all.stream().filter(matcher)
+                    .map(Entity::getId).sorted().collect(Collectors.toList());
+            assertEquals(expected, matched, term);
+        }
+        // No words, so LIKE; a wildcard can't be evaluated in memory.
+        assertNull(entityDAO.termMatcher("%"));
+        assertNotNull(entityDAO.termMatcher("-"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.metrics.DaoMetrics;
+import com.example.crudapp.metrics.OperationStats;
+import com.example.crudapp.metrics.SlowQuery;
+import com.example.crudapp.model.Entity;
+import com.example.crudapp.model.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedEntityDAOTest {
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setSlowQueryThresholdMillis(0));
+
+    private ConnectionPool pool;
+    private DaoMetrics metrics;
+    private EntityDAO dao;
+
+    @BeforeEach
+    void setUp() {
+        pool = db.pool();
+        metrics = pool.getMetrics();
+        metrics.reset();
+        dao = new InstrumentedEntityDAO(new EntityDAOImpl(pool), metrics);
+    }
+
+    @Test
+    void testCallsAreRecordedPerOperationAndShape() {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            entities.add(new Entity(null, "Entity " + i, null, null, null));
+        }
+        dao.addAll(entities);
+        dao.get(entities.get(0).getId());
+        dao.get(UUID.randomUUID());
+        dao.page(new SearchCriteria(null, "All", "name", true), 0, 10, true);
+        dao.page(new SearchCriteria("entity", "All", "createdAt", false), 1, 10, false);
+        assertThrows(ValidationException.class, () -> dao.add(new Entity(null, "x", null, null, null)));
+
+        assertEquals(30, metrics.getOperation("addAll").getRows());
+        OperationStats get = metrics.getOperation("get");
+        assertEquals(2, get.getCount());
+        assertEquals(1, get.getRows());
+        assertTrue(get.getMaxMillis() > 0);
+        assertEquals(10, metrics.getOperation("page[name,count]").getRows());
+        assertEquals(1, metrics.getOperation("page[createdAt desc,term]").getCount());
+        assertEquals(1, metrics.getOperation("add").getErrors());
+        assertTrue(metrics.getConnectionAcquire().getCount() > 0);
+    }
+
+    @Test
+    void testSlowStatementsAreLoggedWithTheirPlan() throws Exception {
+        metrics.setSlowQueryThresholdMillis(1);
+        String slow = "WITH RECURSIVE n(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM n WHERE x < 2000000) SELECT count(*) FROM n";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(slow);
+             ResultSet rs = pstmt.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(2_000_000, rs.getInt(1));
+        }
+
+        List<SlowQuery> slowQueries = metrics.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        assertEquals(slow, slowQueries.get(0).getSql());
+        assertTrue(slowQueries.get(0).getDurationMillis() >= 1);
+        assertTrue(slowQueries.get(0).getPlan().contains("SCAN"), slowQueries.get(0).getPlan());
+
+        // The statement cache still hands out working statements afterwards.
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+             ResultSet rs = pstmt.executeQuery()) {
+            assertTrue(rs.next());
+        }
+    }
+
+    @Test
+    void testMetricsAreReadableOverJmx() throws Exception {
+        dao.getCount(null, null);
+        ObjectName name = metrics.register("test-" + UUID.randomUUID());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+            assertEquals("getCount[]", operations[0].get("operation"));
+            assertEquals(1L, operations[0].get("count"));
+            assertNotNull(((CompositeData) server.getAttribute(name, "ConnectionAcquire")).get("p99Millis"));
+
+            server.setAttribute(name, new javax.management.Attribute("SlowQueryThresholdMillis", 500L));
+            assertEquals(500, metrics.getSlowQueryThresholdMillis());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.crudapp.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN QUERY PLAN over every SQL shape the DAO can emit and checks that none of them falls
+ * back to a full table scan.
+ */
+public class QueryPlanTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase();
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = db.pool();
+    }
+
+    @Test
+    void testMigrationsRecordSchemaVersion() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(Database.migrations(new FullTextIndex()).size(), SchemaMigrator.currentVersion(conn));
+            // Running again is a no-op.
+            new SchemaMigrator(Database.migrations(new FullTextIndex())).migrate(conn);
+        }
+    }
+
+    @Test
+    void testEveryQueryShapeUsesAnIndex() throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            for (SearchCriteria criteria : allShapes()) {
+                // LIKE until the full-text index is ready, then full-text matches.
+                checkShape(conn, criteria, false, failures);
+                checkShape(conn, criteria, true, failures);
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    private static void checkShape(Connection conn, SearchCriteria criteria, boolean fullText, List<String> failures)
+            throws SQLException {
+        SearchQuery query = new SearchQuery(criteria, fullText);
+        boolean sortedByIndex = isSortedByIndex(criteria, fullText);
+        List<String> sqls = List.of(
+                query.countSql(),
+                query.selectSql(),
+                query.pageSql(Projection.ENTITY, false),
+                query.pageSql(Projection.ENTITY, true),
+                query.seekSql(false, true),
+                query.seekSql(true, true),
+                query.seekSql(true, false));
+        for (String sql : sqls) {
+            QueryPlan plan = QueryPlan.explain(conn, sql);
+            // No index narrows a LIKE '%term%' count: it has to read every row.
+            boolean likeCount = !fullText && criteria.getSearchTerm() != null && sql.contains("SELECT COUNT");
+            if (plan.hasFullScan("entities") && !likeCount) {
+                failures.add(sql + "\n" + plan);
+            }
+            if (sortedByIndex && !sql.startsWith("SELECT COUNT") && plan.usesTempSort()) {
+                failures.add("sorted outside an index: " + sql + "\n" + plan);
+            }
+        }
+        String capped = query.cappedCountSql();
+        QueryPlan cappedPlan = QueryPlan.explain(conn, capped);
+        // Estimates only run capped counts for search terms, without the relevance join.
+        boolean estimated = criteria.getSearchTerm() != null && !SearchQuery.RELEVANCE.equals(criteria.getSortBy());
+        if (estimated && criteria.getDateFrom() == null && criteria.getDateTo() == null && cappedPlan.usesTempSort()) {
+            // Walking rowid order lets the count stop at the limit instead of sorting every match.
+            failures.add("capped count sorts: " + capped + "\n" + cappedPlan);
+        }
+        String seek = query.seekSql(true, true);
+        QueryPlan seekPlan = QueryPlan.explain(conn, seek);
+        if (sortedByIndex && !seekPlan.hasIndexSearch("entities")) {
+            failures.add("keyset seek does not start from an index range: " + seek + "\n" + seekPlan);
+        }
+    }
+
+    /**
+     * Without a full-text match or date range the sort index alone should deliver rows in order; a LIKE
+     * term is checked on the rows as they come.
+     */
+    private static boolean isSortedByIndex(SearchCriteria criteria, boolean fullText) {
+        return (criteria.getSearchTerm() == null || !fullText)
+                && criteria.getDateFrom() == null && criteria.getDateTo() == null;
+    }
+
+    private static List<SearchCriteria> allShapes() {
+        List<SearchCriteria> shapes = new ArrayList<>();
+        for (String term : new String[]{null, "apple"}) {
+            for (String filter : new String[]{null, "Letters Only"}) {
+                for (String sortBy : new String[]{"name", "createdAt", "relevance"}) {
+                    for (boolean asc : new boolean[]{true, false}) {
+                        for (LocalDateTime from : new LocalDateTime[]{null, DATE}) {
+                            for (LocalDateTime to : new LocalDateTime[]{null, DATE}) {
+                                shapes.add(new SearchCriteria(term, filter, sortBy, asc, from, to));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return shapes;
+    }
+}
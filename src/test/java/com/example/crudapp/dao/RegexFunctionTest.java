@@ -0,0 +1,47 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.cache.LruCache;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegexFunctionTest {
+
+    private final LruCache<String, Pattern> patterns = new LruCache<>(8);
+
+    @Test
+    void testPatternIsCompiledOncePerExpression() throws SQLException {
+        RegexFunction function = new RegexFunction(patterns, 1000);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 10 == 7, function.matches("7$", "row " + i));
+        }
+        assertEquals(1, patterns.stats().getMisses());
+
+        // Another connection, i.e. another function instance, shares the compiled patterns.
+        RegexFunction other = new RegexFunction(patterns, 1000);
+        assertTrue(other.matches("^[a-z]+$", "abc"));
+        assertTrue(other.matches("7$", "17"));
+        assertEquals(2, patterns.stats().getMisses());
+        assertEquals(1, patterns.stats().getHits());
+    }
+
+    @Test
+    void testBacktrackingIsCutOff() throws SQLException {
+        RegexFunction function = new RegexFunction(patterns, 100_000);
+        String input = "a".repeat(40);
+
+        SQLException error = assertThrows(SQLException.class, () -> function.matches("(a+?)+?b", input));
+        assertTrue(error.getMessage().contains("100000 steps"));
+        // The budget is per evaluation.
+        assertTrue(function.matches("a+", input));
+    }
+
+    @Test
+    void testInvalidPatternIsReported() {
+        RegexFunction function = new RegexFunction(patterns, 1000);
+        assertThrows(SQLException.class, () -> function.matches("([a-z]", "abc"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.crudapp.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageProfileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDurableProfileIsAppliedToPooledConnections() throws SQLException {
+        try (ConnectionPool pool = Database.createPool(config(StorageProfile.durable()));
+             Connection conn = pool.getConnection()) {
+            assertEquals("wal", pragma(conn, "journal_mode"));
+            assertEquals("2", pragma(conn, "synchronous")); // FULL
+            assertEquals("-8192", pragma(conn, "cache_size"));
+            assertEquals("5000", pragma(conn, "busy_timeout"));
+        }
+    }
+
+    @Test
+    void testThroughputProfileRelaxesSyncAndUsesMemory() throws SQLException {
+        try (ConnectionPool pool = Database.createPool(config(StorageProfile.throughput()));
+             Connection conn = pool.getConnection()) {
+            assertEquals("wal", pragma(conn, "journal_mode"));
+            assertEquals("1", pragma(conn, "synchronous")); // NORMAL
+            assertEquals("2", pragma(conn, "temp_store")); // MEMORY
+            assertEquals("-65536", pragma(conn, "cache_size"));
+        }
+    }
+
+    @Test
+    void testUnknownValuesAreRejected() {
+        StorageProfile profile = StorageProfile.durable();
+        assertThrows(IllegalArgumentException.class, () -> profile.setSynchronous("FULL; DROP TABLE entities"));
+        assertThrows(IllegalArgumentException.class, () -> StorageProfile.named("fastest"));
+        profile.setJournalMode("truncate");
+        assertEquals("TRUNCATE", profile.getJournalMode());
+    }
+
+    private DatabaseConfig config(StorageProfile profile) {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl("jdbc:sqlite:" + tempDir.resolve(profile.getName() + ".db"));
+        config.setStorageProfile(profile);
+        return config;
+    }
+
+    private static String pragma(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+}
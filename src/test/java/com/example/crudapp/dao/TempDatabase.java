@@ -0,0 +1,114 @@
+package com.example.crudapp.dao;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * A database file of its own for each test, for use with {@code @RegisterExtension}. Pools are opened
+ * on first use, so a test can prepare the file through {@link #url()} first, and are closed after the
+ * test together with any opened through {@link #open()}.
+ */
+public final class TempDatabase implements BeforeEachCallback, AfterEachCallback {
+    private final Consumer<DatabaseConfig> settings;
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private Path dir;
+    private ConnectionPool pool;
+
+    public TempDatabase() {
+        this(config -> { });
+    }
+
+    /** @param settings applied to every {@link #config()} after the URL has been set */
+    public TempDatabase(Consumer<DatabaseConfig> settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws IOException {
+        dir = Files.createTempDirectory("crudapp-test");
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws IOException {
+        for (ConnectionPool opened : pools) {
+            opened.close();
+        }
+        pools.clear();
+        pool = null;
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public String url() {
+        return "jdbc:sqlite:" + dir.resolve("test.db");
+    }
+
+    /** A new config for the test database. */
+    public DatabaseConfig config() {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl(url());
+        settings.accept(config);
+        return config;
+    }
+
+    /** The test's pool, created by {@link Database#createPool} on first use. */
+    public ConnectionPool pool() {
+        if (pool == null) {
+            pool = open();
+        }
+        return pool;
+    }
+
+    /** Another pool on the same file, e.g. to reopen it as the next start of the app would. */
+    public ConnectionPool open() {
+        ConnectionPool opened = Database.createPool(config());
+        pools.add(opened);
+        return opened;
+    }
+
+    /** Closes {@code opened} with the others after the test, for pools not created by {@link #open()}. */
+    public ConnectionPool closeAfterTest(ConnectionPool opened) {
+        pools.add(opened);
+        return opened;
+    }
+
+    /** Waits, for up to five seconds, until the backfills that {@link #pool()} started have all finished. */
+    void awaitBackfill(IncrementalBackfill... backfills) throws SQLException, InterruptedException {
+        awaitBackfill(pool(), backfills);
+    }
+
+    /** The same for the backfills started by {@code pool}, e.g. one from {@link #open()}. */
+    void awaitBackfill(ConnectionPool pool, IncrementalBackfill... backfills) throws SQLException, InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            boolean done = true;
+            try (Connection conn = pool.getConnection()) {
+                for (IncrementalBackfill backfill : backfills) {
+                    done &= backfill.isComplete(conn);
+                }
+            }
+            if (done) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Backfills " + Arrays.stream(backfills).map(IncrementalBackfill::getName).collect(Collectors.joining(", "))
+                + " did not finish");
+    }
+}
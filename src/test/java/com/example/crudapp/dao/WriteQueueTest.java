@@ -0,0 +1,161 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteQueueTest {
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase(config -> config.setGroupCommitWindowMillis(20));
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = db.pool();
+    }
+
+    /** Counts rows on a connection of its own, so only committed rows are seen. */
+    private int committedRows(String where) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(db.url());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM entities WHERE " + where)) {
+            return rs.getInt(1);
+        }
+    }
+
+    private static WriteQueue.Write<Integer> insert(String name) {
+        return conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO entities (id, name, createdAt, updatedAt) VALUES (randomblob(16), ?, 0, 0)")) {
+                pstmt.setString(1, name);
+                return pstmt.executeUpdate();
+            }
+        };
+    }
+
+    @Test
+    void testConcurrentWritesShareCommits() throws Exception {
+        EntityDAO dao = new EntityDAOImpl(pool);
+        // Creating the pool already ran the backfills' first batches through the queue.
+        WriteQueueStats before = pool.getWriteQueue().getStats();
+        long rowsBefore = pool.getMetrics().getOperation("groupCommit").getRows();
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                done.add(writers.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        dao.add(new Entity(null, "Writer " + thread + " row " + i, "", null, null));
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        assertEquals(200, committedRows("name LIKE 'Writer %'"));
+        WriteQueueStats stats = pool.getWriteQueue().getStats();
+        assertEquals(200, stats.getWrites() - before.getWrites());
+        assertEquals(0, stats.getFailedWrites());
+        assertTrue(stats.getCommits() - before.getCommits() < 200, stats.toString());
+        assertTrue(stats.getMaxGroupSize() > 1, stats.toString());
+        assertTrue(stats.getWritesPerBusySecond() > 0);
+        assertEquals(200, pool.getMetrics().getOperation("groupCommit").getRows() - rowsBefore);
+    }
+
+    @Test
+    void testFailedWriteIsRolledBackAlone() throws Exception {
+        WriteQueue queue = pool.getWriteQueue();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Keeps the writer busy so the next three writes queue up and go out as one group.
+        CompletableFuture<Object> blocker = queue.submit(conn -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Integer> first = queue.submit(insert("Kept 1"));
+        CompletableFuture<Integer> failing = queue.submit(conn -> {
+            insert("Rolled back").apply(conn);
+            throw new SQLException("rejected");
+        });
+        CompletableFuture<Integer> second = queue.submit(insert("Kept 2"));
+        long commitsBefore = queue.getStats().getCommits();
+        release.countDown();
+
+        assertEquals(1, first.get(10, TimeUnit.SECONDS));
+        // Complete means committed: another connection sees the row.
+        assertEquals(1, committedRows("name = 'Kept 1'"));
+        assertEquals(1, second.get(10, TimeUnit.SECONDS));
+        blocker.get(10, TimeUnit.SECONDS);
+        CompletionException e = assertThrows(CompletionException.class, failing::join);
+        assertEquals("rejected", e.getCause().getMessage());
+        assertEquals(0, committedRows("name = 'Rolled back'"));
+        assertEquals(2, committedRows("name LIKE 'Kept %'"));
+        // The blocker's commit, then one for the group.
+        assertEquals(commitsBefore + 2, queue.getStats().getCommits());
+        assertEquals(1, queue.getStats().getFailedWrites());
+    }
+
+    @Test
+    void testErrorInWriteKeepsWriterRunning() throws Exception {
+        WriteQueue queue = pool.getWriteQueue();
+        CompletableFuture<Integer> failing = queue.submit(conn -> {
+            insert("Half done").apply(conn);
+            throw new AssertionError("broken write");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof AssertionError);
+
+        assertEquals(1, queue.submit(insert("After error")).get(10, TimeUnit.SECONDS));
+        assertEquals(0, committedRows("name = 'Half done'"));
+        assertEquals(1, committedRows("name = 'After error'"));
+        assertEquals(1, queue.getStats().getFailedWrites());
+    }
+
+    @Test
+    void testCloseCommitsQueuedWrites() throws Exception {
+        WriteQueue queue = pool.getWriteQueue();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(queue.submit(insert("Queued " + i)));
+        }
+        pool.close();
+        for (CompletableFuture<Integer> future : futures) {
+            assertEquals(1, future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(20, committedRows("name LIKE 'Queued %'"));
+        assertThrows(CompletionException.class, () -> queue.submit(insert("Too late")).join());
+    }
+}
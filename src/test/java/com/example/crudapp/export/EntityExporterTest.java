@@ -0,0 +1,93 @@
+package com.example.crudapp.export;
+
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.TempDatabase;
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase();
+
+    private EntityDAO dao;
+    private EntityExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        dao = new EntityDAOImpl(db.pool());
+        exporter = new EntityExporter(dao);
+    }
+
+    @Test
+    void testCsvQuotesFieldsThatNeedIt() throws IOException {
+        Entity plain = new Entity(UUID.randomUUID(), "Plain", null, null, null);
+        Entity tricky = new Entity(UUID.randomUUID(), "Comma, \"quoted\"", "two\nlines", null, null);
+        dao.add(plain);
+        dao.add(tricky);
+
+        Path file = tempDir.resolve("entities.csv");
+        assertEquals(2, exporter.export(file, EntityExporter.Format.CSV, false, rows -> { }));
+
+        String csv = Files.readString(file);
+        assertEquals("id,name,description,createdAt,updatedAt\r\n"
+                + plain.getId() + ",Plain,," + iso(plain) + "," + iso(plain) + "\r\n"
+                + tricky.getId() + ",\"Comma, \"\"quoted\"\"\",\"two\nlines\"," + iso(tricky) + "," + iso(tricky) + "\r\n", csv);
+    }
+
+    @Test
+    void testJsonLinesEscapesAndGzip() throws IOException {
+        Entity entity = new Entity(UUID.randomUUID(), "Back\\slash \"and\" tab\t", null, null, null);
+        dao.add(entity);
+
+        Path file = tempDir.resolve("entities.jsonl.gz");
+        exporter.export(file, EntityExporter.Format.JSON_LINES, true, rows -> { });
+
+        String json;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("{\"id\":\"" + entity.getId() + "\",\"name\":\"Back\\\\slash \\\"and\\\" tab\\t\",\"description\":null,"
+                + "\"createdAt\":\"" + iso(entity) + "\",\"updatedAt\":\"" + iso(entity) + "\"}\n", json);
+    }
+
+    @Test
+    void testProgressIsReportedWhileStreaming() throws IOException {
+        List<Entity> batch = new ArrayList<>();
+        for (int i = 0; i < EntityExporter.PROGRESS_INTERVAL * 2 + 5; i++) {
+            batch.add(new Entity(null, "Entity " + i, null, null, null));
+        }
+        dao.addAll(batch);
+
+        List<Long> reports = new ArrayList<>();
+        long rows = exporter.export(tempDir.resolve("entities.csv"), EntityExporter.Format.CSV, false, reports::add);
+
+        assertEquals(batch.size(), rows);
+        assertEquals(List.of(EntityExporter.PROGRESS_INTERVAL, EntityExporter.PROGRESS_INTERVAL * 2, rows), reports);
+        assertEquals(rows + 1, Files.readAllLines(tempDir.resolve("entities.csv")).size());
+    }
+
+    private static String iso(Entity entity) {
+        return entity.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
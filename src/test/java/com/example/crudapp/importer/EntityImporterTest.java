@@ -0,0 +1,199 @@
+package com.example.crudapp.importer;
+
+import com.example.crudapp.dao.EntityDAO;
+import com.example.crudapp.dao.EntityDAOImpl;
+import com.example.crudapp.dao.TempDatabase;
+import com.example.crudapp.export.EntityExporter;
+import com.example.crudapp.model.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.spy;
+
+public class EntityImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @RegisterExtension
+    final TempDatabase db = new TempDatabase();
+
+    private EntityDAO dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new EntityDAOImpl(db.pool());
+    }
+
+    private EntityImporter importer(EntityDAO target) {
+        EntityImporter importer = new EntityImporter(target);
+        importer.setBatchSize(7);
+        importer.setParserThreads(3);
+        return importer;
+    }
+
+    @Test
+    void testExportedFilesImportBack() throws IOException {
+        List<Entity> originals = new ArrayList<>();
+        LocalDateTime created = LocalDateTime.of(2020, 1, 1, 9, 30, 15, 123_456_000);
+        for (int i = 0; i < 50; i++) {
+            // Every third row is stored at the time of the add instead.
+            LocalDateTime createdAt = i % 3 == 0 ? null : created.plusHours(i);
+            originals.add(new Entity(null, "Entity, no. " + i, i % 2 == 0 ? "line one\nline \"two\"" : null,
+                    createdAt, createdAt == null ? null : createdAt.plusDays(i)));
+        }
+        dao.addAll(originals);
+
+        for (EntityExporter.Format format : EntityExporter.Format.values()) {
+            Path file = tempDir.resolve("entities." + format);
+            new EntityExporter(dao).export(file, format, false, rows -> { });
+            dao.deleteAll(List.of(originals.stream().map(Entity::getId).toArray(UUID[]::new)));
+
+            List<Long> progress = new ArrayList<>();
+            ImportResult result = importer(dao).importFile(file, format, progress::add);
+
+            assertEquals(50, result.getImported(), format.toString());
+            assertEquals(0, result.getRejected());
+            assertNull(result.getRejectsFile());
+            assertEquals(50L, progress.get(progress.size() - 1));
+            assertTrue(result.getRowsPerSecond() > 0);
+            for (Entity original : originals) {
+                Entity copy = dao.get(original.getId()).orElseThrow();
+                assertEquals(original.getName(), copy.getName());
+                assertEquals(original.getDescription(), copy.getDescription());
+                assertEquals(original.getCreatedAt(), copy.getCreatedAt(), format.toString());
+                assertEquals(original.getUpdatedAt(), copy.getUpdatedAt(), format.toString());
+            }
+            assertFalse(Files.exists(ImportCheckpoint.path(file)));
+        }
+    }
+
+    @Test
+    void testBadRowsGoToTheRejectsFile() throws IOException {
+        UUID existing = UUID.randomUUID();
+        dao.add(new Entity(existing, "Already here", null, null, null));
+        Path file = tempDir.resolve("input.csv");
+        Files.writeString(file, "name,id,extra\n"
+                + "Good row,,x\n"
+                + "ab,,too short\n"
+                + "Bad id,not-a-uuid,x\n"
+                + "Duplicate," + existing + ",x\n"
+                + "\n"
+                + "\"Unterminated,,x\n");
+
+        ImportResult result = importer(dao).importFile(file, EntityExporter.Format.CSV, rows -> { });
+
+        assertEquals(1, result.getImported());
+        assertEquals(4, result.getRejected());
+        List<String> rejects = Files.readAllLines(result.getRejectsFile());
+        assertEquals("name,id,extra,rejectReason", rejects.get(0));
+        assertEquals("ab,,too short,\"Entity name must be between 3 and 50 characters.\"", rejects.get(1));
+        assertTrue(rejects.get(2).startsWith("Bad id,not-a-uuid,x,\"Invalid id"));
+        assertTrue(rejects.get(3).startsWith("Duplicate," + existing + ",x,\""));
+        assertTrue(rejects.get(4).startsWith("\"Unterminated,,x,\"Unterminated quoted field"));
+
+        Path json = tempDir.resolve("input.jsonl");
+        Files.writeString(json, "{\"name\":\"Fine\"}\n{\"name\":\"no\"}\nnot json\n");
+        ImportResult jsonResult = importer(dao).importFile(json, EntityExporter.Format.JSON_LINES, rows -> { });
+        assertEquals(1, jsonResult.getImported());
+        List<String> jsonRejects = Files.readAllLines(jsonResult.getRejectsFile());
+        assertEquals("{\"name\":\"no\",\"rejectReason\":\"Entity name must be between 3 and 50 characters.\"}", jsonRejects.get(0));
+        assertTrue(jsonRejects.get(1).startsWith("{\"record\":\"not json\",\"rejectReason\":"));
+    }
+
+    @Test
+    void testInterruptedImportResumesFromCheckpoint() throws IOException {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            csv.append(id).append(",Row ").append(i).append('\n');
+        }
+        Path file = tempDir.resolve("resume.csv");
+        Files.writeString(file, csv);
+
+        // The database fails on the third block.
+        EntityDAO failing = spy(dao);
+        doCallRealMethod().doCallRealMethod().doThrow(new RuntimeException("disk full")).when(failing).addAll(any());
+        assertThrows(RuntimeException.class, () -> importer(failing).importFile(file, EntityExporter.Format.CSV, rows -> { }));
+        assertEquals(14, dao.getCount(null, null));
+        assertTrue(Files.exists(ImportCheckpoint.path(file)));
+
+        ImportResult result = importer(dao).importFile(file, EntityExporter.Format.CSV, rows -> { });
+
+        assertTrue(result.isResumed());
+        assertEquals(30, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(30, dao.getCount(null, null));
+        for (UUID id : ids) {
+            assertTrue(dao.get(id).isPresent());
+        }
+    }
+
+    @Test
+    void testBlockCommittedBeforeItsCheckpointIsNotImportedTwice() throws IOException {
+        StringBuilder csv = new StringBuilder("name,description\n");
+        for (int i = 0; i < 30; i++) {
+            csv.append("Row ").append(i).append(",no id\n");
+        }
+        Path file = tempDir.resolve("replay.csv");
+        Files.writeString(file, csv);
+
+        // The third block commits, then the run dies before saving its checkpoint.
+        EntityDAO crashing = spy(dao);
+        doCallRealMethod().doCallRealMethod().doAnswer(invocation -> {
+            invocation.callRealMethod();
+            throw new RuntimeException("killed");
+        }).when(crashing).addAll(any());
+        assertThrows(RuntimeException.class, () -> importer(crashing).importFile(file, EntityExporter.Format.CSV, rows -> { }));
+        assertEquals(21, dao.getCount(null, null));
+
+        ImportResult result = importer(dao).importFile(file, EntityExporter.Format.CSV, rows -> { });
+
+        assertTrue(result.isResumed());
+        assertEquals(30, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(30, dao.getCount(null, null));
+    }
+
+    @Test
+    void testRecordsAcrossWindowBoundariesAreMappedOnce() throws IOException {
+        Path file = tempDir.resolve("windows.csv");
+        Files.writeString(file, "id,name\r\n,\"Quoted\nbreak\"\r\n\n\n,Plain row\r\n,Last");
+        List<String> expected = List.of("id,name", ",\"Quoted\nbreak\"", ",Plain row", ",Last");
+
+        // Every window size puts the boundaries somewhere else, also between a \r and its \n.
+        for (int window = 1; window <= 12; window++) {
+            for (int batch = 1; batch <= 3; batch++) {
+                List<String> records = new ArrayList<>();
+                try (RecordReader reader = new RecordReader(file, true, 0, window)) {
+                    RecordReader.Block block;
+                    while ((block = reader.next(batch)) != null) {
+                        for (int i = 0; i < block.records; i++) {
+                            records.add(new String(block.data, block.recordStarts[i],
+                                    block.recordEnds[i] - block.recordStarts[i], StandardCharsets.UTF_8));
+                        }
+                    }
+                    assertEquals(Files.size(file), reader.mappedBytes(), "window " + window);
+                }
+                assertEquals(expected, records, "window " + window + ", batch " + batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.crudapp.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucketsKeepTwoSignificantDigits() {
+        for (long value = 0; value < 1_000_000; value = value * 3 / 2 + 1) {
+            long reported = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value));
+            assertTrue(reported >= value, "value " + value);
+            assertTrue(reported - value <= value / 64, "value " + value);
+        }
+        long max = LatencyHistogram.MAX_TRACKABLE_NANOS;
+        assertTrue(LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(max)) >= max);
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanNanos() / 1e6, 0.01);
+        assertEquals(50, histogram.getValueAtPercentile(50) / 1e6, 1);
+        assertEquals(99, histogram.getValueAtPercentile(99) / 1e6, 1.6);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getValueAtPercentile(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxNanos());
+
+        histogram.record(TimeUnit.DAYS.toNanos(1));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, histogram.getMaxNanos());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}